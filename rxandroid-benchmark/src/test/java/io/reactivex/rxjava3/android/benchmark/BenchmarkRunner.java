@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.benchmark;
+
+import java.io.File;
+import org.junit.Assume;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/**
+ * Runs the JMH benchmarks in this package inside Robolectric's sandbox so that they can use real
+ * {@code Handler}s and {@code Looper}s on the JVM.
+ * <p>
+ * Skipped unless Gradle is invoked with {@code -Pbenchmark}, optionally with a regular expression
+ * selecting benchmarks (e.g. {@code -Pbenchmark=HandlerScheduler}). Results, including the
+ * allocation rate per operation from the GC profiler, are written as JSON to
+ * {@code build/reports/jmh/results.json}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class BenchmarkRunner {
+    @Test public void run() throws RunnerException {
+        String results = System.getProperty("rxandroid.benchmark.results");
+        Assume.assumeTrue("Benchmarks only run with -Pbenchmark", results != null);
+        String include = System.getProperty("rxandroid.benchmark.include", "");
+        if (include.isEmpty()) {
+            include = BenchmarkRunner.class.getPackage().getName() + ".*Benchmark";
+        }
+
+        File resultsFile = new File(results);
+        resultsFile.getParentFile().mkdirs();
+
+        Options options = new OptionsBuilder()
+            .include(include)
+            .forks(0) // Forked JVMs would run outside of the Robolectric sandbox.
+            .threads(1)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultsFile.getAbsolutePath())
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.benchmark;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.android.schedulers.SchedulerOptions;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures scheduling a batch of tasks onto the main looper and draining it, for each
+ * {@link SchedulerOptions} mode. Scores are per task.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HandlerSchedulerBenchmark {
+    static final int BATCH = 100;
+
+    @Param({"default", "coalesce", "pooled", "immediate"})
+    public String mode;
+
+    private final Runnable task = new Runnable() {
+        @Override public void run() {
+        }
+    };
+
+    private Scheduler scheduler;
+    private Worker worker;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Loopers.takeMainThread();
+        scheduler = AndroidSchedulers.from(Looper.getMainLooper(), options(mode));
+        worker = scheduler.createWorker();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        worker.dispose();
+        Loopers.drainMainLooper();
+    }
+
+    static SchedulerOptions options(String mode) {
+        switch (mode) {
+            case "default":
+                return SchedulerOptions.DEFAULT;
+            case "coalesce":
+                return SchedulerOptions.builder().coalesce(true).build();
+            case "pooled":
+                return SchedulerOptions.builder().pooled(true).build();
+            case "immediate":
+                return SchedulerOptions.builder().immediate(true).build();
+            default:
+                throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void scheduleDirect() {
+        for (int i = 0; i < BATCH; i++) {
+            scheduler.scheduleDirect(task);
+        }
+        Loopers.drainMainLooper();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void workerSchedule() {
+        for (int i = 0; i < BATCH; i++) {
+            worker.schedule(task);
+        }
+        Loopers.drainMainLooper();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void observeOnBurst(final Blackhole blackhole) {
+        Observable.range(0, BATCH)
+            .observeOn(scheduler)
+            .subscribe(blackhole::consume);
+        Loopers.drainMainLooper();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void workerDisposeWithPendingTasks() {
+        Worker worker = scheduler.createWorker();
+        for (int i = 0; i < BATCH; i++) {
+            worker.schedule(task, 1, TimeUnit.SECONDS);
+        }
+        worker.dispose();
+        Loopers.drainMainLooper();
+    }
+}
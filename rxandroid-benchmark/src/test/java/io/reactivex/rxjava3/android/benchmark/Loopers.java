@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.benchmark;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import java.util.concurrent.TimeUnit;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.shadows.ShadowLooper;
+
+import static org.robolectric.Shadows.shadowOf;
+
+/** Controls Robolectric's main looper from JMH worker threads. */
+final class Loopers {
+    /** A thread which never runs and stands in as the main thread for off-main benchmarks. */
+    private static final Thread NOT_THE_BENCHMARK_THREAD = new Thread();
+
+    /** Make the calling thread the main thread and queue posted work until drained. */
+    static void takeMainThread() {
+        RuntimeEnvironment.setMainThread(Thread.currentThread());
+        RxAndroidPlugins.setMainThread(Thread.currentThread());
+        ShadowLooper.pauseMainLooper();
+    }
+
+    /** Make the calling thread a background thread and queue posted work until drained. */
+    static void releaseMainThread() {
+        RuntimeEnvironment.setMainThread(NOT_THE_BENCHMARK_THREAD);
+        RxAndroidPlugins.setMainThread(null); // Forget the previous main thread.
+        ShadowLooper.pauseMainLooper();
+    }
+
+    /** Run everything posted to the main looper, including delayed messages. */
+    static void drainMainLooper() {
+        shadowOf(Looper.getMainLooper()).getScheduler().advanceToLastPostedRunnable();
+    }
+
+    /** Run the messages posted to the main looper which are due, leaving delayed ones queued. */
+    static void runDueTasks() {
+        shadowOf(Looper.getMainLooper()).getScheduler().advanceBy(0, TimeUnit.MILLISECONDS);
+    }
+
+    private Loopers() {
+        throw new AssertionError("No instances.");
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.benchmark;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.android.MainThread;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares {@link MainThread#isMainThread()} with comparing {@link Looper#myLooper()} against
+ * {@link Looper#getMainLooper()}, on and off the main thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MainThreadBenchmark {
+    @Param({"true", "false"})
+    public boolean onMainThread;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if (onMainThread) {
+            Loopers.takeMainThread();
+        } else {
+            Loopers.releaseMainThread();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        Loopers.takeMainThread();
+    }
+
+    @Benchmark
+    public boolean looperCheck() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    @Benchmark
+    public boolean isMainThread() {
+        return MainThread.isMainThread();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.benchmark;
+
+import io.reactivex.rxjava3.android.MainThreadDisposable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures creating and disposing {@link MainThreadDisposable}s on and off the main thread,
+ * including running any dispose actions posted to the main looper. Scores are per disposable.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MainThreadDisposableBenchmark {
+    static final int BATCH = 100;
+
+    @Param({"true", "false"})
+    public boolean onMainThread;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        if (onMainThread) {
+            Loopers.takeMainThread();
+        } else {
+            Loopers.releaseMainThread();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        Loopers.takeMainThread();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void dispose() {
+        for (int i = 0; i < BATCH; i++) {
+            new NoOpDisposable().dispose();
+        }
+        Loopers.drainMainLooper();
+    }
+
+    static final class NoOpDisposable extends MainThreadDisposable {
+        @Override protected void onDispose() {
+        }
+    }
+}
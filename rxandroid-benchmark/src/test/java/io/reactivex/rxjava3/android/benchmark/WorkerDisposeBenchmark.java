@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.benchmark;
+
+import android.os.Handler;
+import android.os.Looper;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures disposing a worker with a pending task while {@code queueDepth} unrelated messages wait
+ * in the main looper, compared with removing messages by token which scans the whole queue.
+ * Scores are per worker.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WorkerDisposeBenchmark {
+    static final int BATCH = 100;
+
+    @Param({"0", "100", "1000"})
+    public int queueDepth;
+
+    private final Object unrelatedToken = new Object();
+    private final Runnable task = new Runnable() {
+        @Override public void run() {
+        }
+    };
+
+    private Handler handler;
+    private Scheduler scheduler;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Loopers.takeMainThread();
+        handler = new Handler(Looper.getMainLooper());
+        scheduler = AndroidSchedulers.from(Looper.getMainLooper());
+        for (int i = 0; i < queueDepth; i++) {
+            handler.postAtTime(task, unrelatedToken, Long.MAX_VALUE / 2);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        handler.removeCallbacksAndMessages(unrelatedToken);
+        Loopers.drainMainLooper();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void disposeWorker() {
+        for (int i = 0; i < BATCH; i++) {
+            Worker worker = scheduler.createWorker();
+            worker.schedule(task);
+            worker.dispose();
+        }
+        Loopers.runDueTasks();
+    }
+
+    /** What disposing a worker used to cost: a scan of the queue for the worker's token. */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void removeCallbacksAndMessages() {
+        for (int i = 0; i < BATCH; i++) {
+            Object token = new Object();
+            handler.postAtTime(task, token, 0);
+            handler.removeCallbacksAndMessages(token);
+        }
+        Loopers.runDueTasks();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableTransformer;
+import io.reactivex.rxjava3.core.ObservableTransformer;
+import io.reactivex.rxjava3.core.Scheduler;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Android-specific {@linkplain ObservableTransformer transformers}. */
+public final class AndroidTransformers {
+    /** Half of a frame at 60Hz, leaving the rest of the frame for layout and drawing. */
+    private static final long DEFAULT_DRAIN_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(8);
+
+    /**
+     * Deliver upstream items on the Android main thread as lists of at most {@code batchSize}.
+     *
+     * @see #observeOnBatched(Scheduler, int)
+     */
+    public static <T> ObservableTransformer<T, List<T>> observeOnMain(int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize <= 0: " + batchSize);
+        return upstream ->
+            new ObservableObserveOnBatched<>(upstream, AndroidSchedulers.mainThread(), batchSize);
+    }
+
+    /**
+     * Deliver upstream items on {@code scheduler} as lists of at most {@code batchSize}.
+     * <p>
+     * Unlike {@code observeOn}, which runs the downstream once per item, every item which has
+     * arrived by the time the scheduler runs the drain is emitted from that single run, grouped
+     * into lists. With a looper-backed scheduler this means one message per burst rather than a
+     * looper dispatch and a downstream call per item, which suits high-rate streams such as sensor
+     * readings. Items are never held back waiting for a batch to fill, so lists may be smaller
+     * than {@code batchSize} and are never empty.
+     * <p>
+     * Items are passed from the upstream to the scheduler through a lock-free single-producer
+     * single-consumer queue. An error is delivered as soon as the drain sees it, dropping any
+     * items which have not been emitted yet, in the same way as {@code observeOn}.
+     */
+    public static <T> ObservableTransformer<T, List<T>> observeOnBatched(Scheduler scheduler,
+            int batchSize) {
+        if (scheduler == null) throw new NullPointerException("scheduler == null");
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize <= 0: " + batchSize);
+        return upstream -> new ObservableObserveOnBatched<>(upstream, scheduler, batchSize);
+    }
+
+    /**
+     * Deliver only the newest upstream item on the Android main thread.
+     *
+     * @see #observeLatestOn(Scheduler)
+     */
+    public static <T> ObservableTransformer<T, T> observeLatestOnMain() {
+        return upstream ->
+            new ObservableObserveOnLatest<>(upstream, AndroidSchedulers.mainThread());
+    }
+
+    /**
+     * Deliver only the newest upstream item on {@code scheduler}, dropping any item which is
+     * replaced before it could be delivered.
+     * <p>
+     * The pending item is kept in a single atomic slot and at most one task is scheduled while an
+     * item is pending, so the downstream is called at most once per scheduled run no matter how
+     * fast the upstream emits, and nothing queues up behind a slow downstream. This suits values
+     * where only the current state matters, such as progress, scroll positions, or prices.
+     * <p>
+     * The last item is always delivered before completion. An error is delivered as soon as it is
+     * seen, dropping the pending item, in the same way as {@code observeOn}.
+     */
+    public static <T> ObservableTransformer<T, T> observeLatestOn(Scheduler scheduler) {
+        if (scheduler == null) throw new NullPointerException("scheduler == null");
+        return upstream -> new ObservableObserveOnLatest<>(upstream, scheduler);
+    }
+
+    /**
+     * Deliver at most one upstream item per frame on the Android main thread, replacing any item
+     * which has not been delivered yet with the newest one.
+     * <p>
+     * Unlike {@code throttleLatest} with a fixed window, items are delivered in
+     * {@link android.view.Choreographer Choreographer} frame callbacks through
+     * {@link AndroidSchedulers#frame()}, so the rate follows the actual refresh rate of the
+     * display. Items which arrive during a frame wait for the next one. The last item is always
+     * delivered before completion.
+     *
+     * @see #observeLatestOn(Scheduler)
+     */
+    public static <T> ObservableTransformer<T, T> throttleToFrame() {
+        return upstream -> new ObservableObserveOnLatest<>(upstream, AndroidSchedulers.frame());
+    }
+
+    /**
+     * Deliver at most one upstream item per frame on the Android main thread, respecting
+     * backpressure.
+     * <p>
+     * Items are delivered in {@link android.view.Choreographer Choreographer} frame callbacks
+     * through {@link AndroidSchedulers#frame()}, so the rate follows the actual refresh rate of
+     * the display. Only one item is requested from the upstream at a time, and the next is only
+     * requested once the frame has delivered it, so items are neither buffered nor dropped. An
+     * item is held until the downstream has requested it.
+     */
+    public static <T> FlowableTransformer<T, T> throttleToFrameFlowable() {
+        return upstream -> new FlowableThrottleToFrame<>(upstream, AndroidSchedulers.frame());
+    }
+
+    /**
+     * Deliver upstream items on the Android main thread, sizing upstream requests so that the
+     * items waiting can be delivered within half of a 60Hz frame.
+     *
+     * @see #observeOnAdaptive(Scheduler, long, TimeUnit)
+     */
+    public static <T> FlowableTransformer<T, T> observeOnMainAdaptive() {
+        return upstream -> new FlowableObserveOnAdaptive<>(upstream, AndroidSchedulers.mainThread(),
+            DEFAULT_DRAIN_BUDGET_NANOS, Flowable.bufferSize());
+    }
+
+    /**
+     * Deliver upstream items on {@code scheduler} like {@code observeOn}, but with upstream
+     * requests sized by how fast the downstream actually consumes items rather than by a fixed
+     * prefetch.
+     * <p>
+     * The time the downstream takes per item is measured while delivering. Only as many items as
+     * can be delivered within {@code budget} are requested from the upstream at a time, up to
+     * {@link Flowable#bufferSize()}, so a slow consumer throttles the producer before items queue
+     * up, bounding both memory and latency. A drain which exceeds {@code budget} schedules another
+     * to continue with the remaining items so that other work, like frame rendering on the main
+     * thread, can run in between.
+     * <p>
+     * An error is delivered as soon as the drain sees it, dropping any items which have not been
+     * emitted yet, in the same way as {@code observeOn}.
+     */
+    public static <T> FlowableTransformer<T, T> observeOnAdaptive(Scheduler scheduler,
+            long budget, TimeUnit unit) {
+        if (scheduler == null) throw new NullPointerException("scheduler == null");
+        if (unit == null) throw new NullPointerException("unit == null");
+        if (budget <= 0) throw new IllegalArgumentException("budget <= 0: " + budget);
+        long budgetNanos = unit.toNanos(budget);
+        int maxPrefetch = Flowable.bufferSize();
+        return upstream ->
+            new FlowableObserveOnAdaptive<>(upstream, scheduler, budgetNanos, maxPrefetch);
+    }
+
+    private AndroidTransformers() {
+        throw new AssertionError("No instances.");
+    }
+}
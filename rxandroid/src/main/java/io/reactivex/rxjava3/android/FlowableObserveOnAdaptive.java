@@ -0,0 +1,270 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.exceptions.MissingBackpressureException;
+import io.reactivex.rxjava3.operators.SpscArrayQueue;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Emits the items of {@code source} on {@code scheduler}, sizing its upstream requests so that the
+ * items it holds can be emitted within one drain budget.
+ *
+ * @see AndroidTransformers#observeOnAdaptive(Scheduler, long, java.util.concurrent.TimeUnit)
+ */
+final class FlowableObserveOnAdaptive<T> extends Flowable<T> {
+    /** The number of items requested before any have been measured. */
+    static final int INITIAL_REQUEST = 16;
+
+    private final Publisher<T> source;
+    private final Scheduler scheduler;
+    private final long budgetNanos;
+    private final int maxPrefetch;
+
+    FlowableObserveOnAdaptive(Publisher<T> source, Scheduler scheduler, long budgetNanos,
+            int maxPrefetch) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.budgetNanos = budgetNanos;
+        this.maxPrefetch = maxPrefetch;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> subscriber) {
+        source.subscribe(new AdaptiveSubscriber<>(subscriber, scheduler.createWorker(), budgetNanos,
+            maxPrefetch));
+    }
+
+    static final class AdaptiveSubscriber<T> extends AtomicInteger
+            implements FlowableSubscriber<T>, Subscription, Runnable {
+        private final Subscriber<? super T> downstream;
+        private final Scheduler.Worker worker;
+        private final long budgetNanos;
+        private final int maxPrefetch;
+        /** Never holds more than {@link #maxPrefetch} items since that is the most requested. */
+        private final SpscArrayQueue<T> queue;
+        private final AtomicLong requested = new AtomicLong();
+
+        private Subscription upstream;
+        private Throwable error;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        // State below is only accessed from the drain, or before it first runs.
+        /** Items emitted to the downstream, compared against {@link #requested}. */
+        private long emitted;
+        /** Items requested from the upstream which have not been emitted yet. */
+        private int outstanding;
+        /** Moving average of the time the downstream takes per item, or 0 before measuring. */
+        private long nanosPerItem;
+
+        AdaptiveSubscriber(Subscriber<? super T> downstream, Scheduler.Worker worker,
+                long budgetNanos, int maxPrefetch) {
+            this.downstream = downstream;
+            this.worker = worker;
+            this.budgetNanos = budgetNanos;
+            this.maxPrefetch = maxPrefetch;
+            this.queue = new SpscArrayQueue<>(maxPrefetch);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            upstream = s;
+            // Written before the downstream can request and so start the drain.
+            int initial = Math.min(INITIAL_REQUEST, maxPrefetch);
+            outstanding = initial;
+            downstream.onSubscribe(this);
+            s.request(initial);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(t)) {
+                upstream.cancel();
+                onError(new MissingBackpressureException("Queue is full?!"));
+                return;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                RxJavaPlugins.onError(
+                    new IllegalArgumentException("n > 0 required but it was " + n));
+                return;
+            }
+            for (;;) {
+                long current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    break;
+                }
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                worker.dispose();
+                if (getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        /** Schedule a drain unless one is already pending. */
+        private void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        /**
+         * Emits queued items until the downstream's demand or the queue is exhausted, or the
+         * budget has run out. In the latter case another drain is scheduled so that other work on
+         * the scheduler's thread can run in between.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                long start = System.nanoTime();
+                int count = 0;
+                long r = requested.get();
+                while (emitted != r) {
+                    boolean done = this.done;
+                    T item = queue.poll();
+                    boolean empty = item == null;
+                    if (checkTerminated(done, empty)) {
+                        return;
+                    }
+                    if (empty) {
+                        break;
+                    }
+                    downstream.onNext(item);
+                    emitted++;
+                    outstanding--;
+                    count++;
+
+                    if (System.nanoTime() - start >= budgetNanos && !queue.isEmpty()) {
+                        // Yield to the scheduler. The work-in-progress count is left non-zero
+                        // so that producers do not schedule a competing drain.
+                        adapt(start, count);
+                        worker.schedule(this);
+                        return;
+                    }
+                }
+                if (emitted == r && checkTerminated(done, queue.isEmpty())) {
+                    return;
+                }
+                adapt(start, count);
+
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Update the measured time per item with {@code count} items emitted since {@code start},
+         * and top up the upstream requests to as many items as fit into one budget.
+         */
+        private void adapt(long start, int count) {
+            if (count > 0) {
+                long sample = Math.max(1, (System.nanoTime() - start) / count);
+                long average = nanosPerItem;
+                nanosPerItem = average == 0 ? sample : (3 * average + sample) / 4;
+            }
+            if (done) {
+                return;
+            }
+            long average = nanosPerItem;
+            int target = average == 0
+                ? Math.min(INITIAL_REQUEST, maxPrefetch)
+                : (int) Math.max(1, Math.min(maxPrefetch, budgetNanos / average));
+            // Top up once half of the target has been consumed, to request in batches.
+            if (outstanding <= target / 2) {
+                int n = target - outstanding;
+                outstanding = target;
+                upstream.request(n);
+            }
+        }
+
+        private boolean checkTerminated(boolean done, boolean empty) {
+            if (cancelled) {
+                queue.clear();
+                return true;
+            }
+            if (done) {
+                Throwable error = this.error;
+                if (error != null) {
+                    cancelled = true;
+                    queue.clear();
+                    downstream.onError(error);
+                    worker.dispose();
+                    return true;
+                }
+                if (empty) {
+                    cancelled = true;
+                    downstream.onComplete();
+                    worker.dispose();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
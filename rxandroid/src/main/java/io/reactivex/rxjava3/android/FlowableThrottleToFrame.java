@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.FlowableSubscriber;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Emits the items of {@code source} one per run of {@code scheduler}, which is a frame with
+ * {@link io.reactivex.rxjava3.android.schedulers.AndroidSchedulers#frame()}. Only a single item
+ * is requested from the upstream at a time, and the next one is requested once that item has been
+ * emitted, so nothing is buffered or dropped.
+ *
+ * @see AndroidTransformers#throttleToFrameFlowable()
+ */
+final class FlowableThrottleToFrame<T> extends Flowable<T> {
+    private final Publisher<T> source;
+    private final Scheduler scheduler;
+
+    FlowableThrottleToFrame(Publisher<T> source, Scheduler scheduler) {
+        this.source = source;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected void subscribeActual(Subscriber<? super T> subscriber) {
+        source.subscribe(new FrameSubscriber<>(subscriber, scheduler.createWorker()));
+    }
+
+    static final class FrameSubscriber<T> extends AtomicInteger
+            implements FlowableSubscriber<T>, Subscription, Runnable {
+        private final Subscriber<? super T> downstream;
+        private final Scheduler.Worker worker;
+        private final AtomicLong requested = new AtomicLong();
+
+        private Subscription upstream;
+        /** The single item requested from the upstream which has not been emitted yet. */
+        private volatile T item;
+        private Throwable error;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        FrameSubscriber(Subscriber<? super T> downstream, Scheduler.Worker worker) {
+            this.downstream = downstream;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            upstream = s;
+            downstream.onSubscribe(this);
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            item = t;
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                RxJavaPlugins.onError(
+                    new IllegalArgumentException("n > 0 required but it was " + n));
+                return;
+            }
+            for (;;) {
+                long current = requested.get();
+                if (current == Long.MAX_VALUE) {
+                    break;
+                }
+                long next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+                if (requested.compareAndSet(current, next)) {
+                    break;
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                worker.dispose();
+                if (getAndIncrement() == 0) {
+                    item = null;
+                }
+            }
+        }
+
+        /** Schedule a run unless one is already pending. */
+        private void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        /**
+         * Emits at most one item. An item which arrives while it runs, including one emitted
+         * synchronously in response to requesting the next, schedules another run.
+         */
+        @Override
+        public void run() {
+            int missed = get();
+            if (cancelled) {
+                item = null;
+                return;
+            }
+            boolean done = this.done;
+            Throwable error = this.error;
+            if (error != null) {
+                item = null;
+                terminate();
+                downstream.onError(error);
+                return;
+            }
+            T item = this.item;
+            if (item != null && requested.get() > 0) {
+                this.item = null;
+                downstream.onNext(item);
+                if (requested.get() != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+                if (!done) {
+                    upstream.request(1);
+                }
+            }
+            if (done && this.item == null) {
+                terminate();
+                if (!cancelled) {
+                    downstream.onComplete();
+                }
+                return;
+            }
+            if (addAndGet(-missed) != 0) {
+                worker.schedule(this);
+            }
+        }
+
+        private void terminate() {
+            cancelled = true;
+            worker.dispose();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+
+/**
+ * Fast checks for whether code is running on the Android main thread.
+ * <p>
+ * Comparing {@link Looper#myLooper()} with {@link Looper#getMainLooper()} costs a thread-local
+ * lookup and a synchronized call. Once a call has been confirmed to be on the main thread, that
+ * thread is remembered and later calls on it only compare {@link Thread#currentThread()}.
+ * <p>
+ * The thread is remembered by {@link RxAndroidPlugins}, so tests which change which thread is
+ * the main thread, such as under Robolectric, forget it with {@link RxAndroidPlugins#reset()}.
+ */
+public final class MainThread {
+    /** Returns true if the calling thread is the Android main thread. */
+    public static boolean isMainThread() {
+        Thread current = Thread.currentThread();
+        if (current == RxAndroidPlugins.getMainThread()) {
+            return true;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            RxAndroidPlugins.setMainThread(current);
+            return true;
+        }
+        return false;
+    }
+
+    private MainThread() {
+        throw new AssertionError("No instances.");
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.disposables.DisposableContainer;
+import io.reactivex.rxjava3.exceptions.CompositeException;
+import io.reactivex.rxjava3.exceptions.Exceptions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A container of {@linkplain Disposable disposables} which is confined to the main thread, such as
+ * the resources of a screen which are disposed together when it is destroyed.
+ * <p>
+ * Resources can only be added, removed, or cleared on the main thread. Since they are never
+ * touched by another thread these operations are not synchronized, and the resources are held in
+ * a plain array which {@link #clearAndReuse()} empties without reallocating.
+ * <p>
+ * {@link #dispose()} can be called from any thread. When called on the main thread the resources
+ * are disposed immediately. Otherwise a single message is posted to dispose all of them on the
+ * main thread, so that every {@link MainThreadDisposable} among them runs its dispose action
+ * directly rather than posting its own message.
+ */
+public final class MainThreadCompositeDisposable implements Disposable, DisposableContainer {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final AtomicIntegerFieldUpdater<MainThreadCompositeDisposable> DISPOSED =
+        AtomicIntegerFieldUpdater.newUpdater(MainThreadCompositeDisposable.class, "disposed");
+
+    private volatile int disposed; // 0 or 1.
+
+    // State below is only accessed from the main thread.
+    private Disposable[] resources;
+    private int size;
+
+    public MainThreadCompositeDisposable() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /** @param capacity the number of resources which can be held before the array grows */
+    public MainThreadCompositeDisposable(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity <= 0: " + capacity);
+        resources = new Disposable[capacity];
+    }
+
+    /**
+     * Add {@code disposable} to this container, or dispose it if this container has been disposed.
+     *
+     * @return true if {@code disposable} was added
+     * @throws IllegalStateException when called from any thread other than the main thread.
+     */
+    @Override
+    public boolean add(Disposable disposable) {
+        if (disposable == null) throw new NullPointerException("disposable == null");
+        MainThreadDisposable.verifyMainThread();
+
+        if (disposed != 0) {
+            disposable.dispose();
+            return false;
+        }
+        Disposable[] resources = this.resources;
+        int size = this.size;
+        if (size == resources.length) {
+            Disposable[] grown = new Disposable[size * 2];
+            System.arraycopy(resources, 0, grown, 0, size);
+            this.resources = resources = grown;
+        }
+        resources[size] = disposable;
+        this.size = size + 1;
+        return true;
+    }
+
+    /**
+     * Remove {@code disposable} from this container and dispose it.
+     *
+     * @return true if {@code disposable} was held by this container
+     * @throws IllegalStateException when called from any thread other than the main thread.
+     */
+    @Override
+    public boolean remove(Disposable disposable) {
+        if (delete(disposable)) {
+            disposable.dispose();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remove {@code disposable} from this container without disposing it.
+     *
+     * @return true if {@code disposable} was held by this container
+     * @throws IllegalStateException when called from any thread other than the main thread.
+     */
+    @Override
+    public boolean delete(Disposable disposable) {
+        if (disposable == null) throw new NullPointerException("disposable == null");
+        MainThreadDisposable.verifyMainThread();
+
+        if (disposed != 0) {
+            return false;
+        }
+        Disposable[] resources = this.resources;
+        int last = size - 1;
+        for (int i = last; i >= 0; i--) {
+            if (resources[i] == disposable) {
+                // Order is not preserved, so fill the gap with the last resource.
+                resources[i] = resources[last];
+                resources[last] = null;
+                size = last;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Dispose all of the resources in this container and remove them, keeping the container usable
+     * and its array allocated for the resources which are added next.
+     *
+     * @throws IllegalStateException when called from any thread other than the main thread.
+     */
+    public void clearAndReuse() {
+        MainThreadDisposable.verifyMainThread();
+
+        if (disposed == 0) {
+            disposeAll();
+        }
+    }
+
+    /**
+     * The number of resources in this container.
+     *
+     * @throws IllegalStateException when called from any thread other than the main thread.
+     */
+    public int size() {
+        MainThreadDisposable.verifyMainThread();
+
+        // Resources of a container disposed off the main thread may still be awaiting disposal.
+        return disposed != 0 ? 0 : size;
+    }
+
+    @Override
+    public void dispose() {
+        if (DISPOSED.compareAndSet(this, 0, 1)) {
+            if (MainThread.isMainThread()) {
+                disposeAllAndRelease();
+            } else {
+                AndroidSchedulers.mainThread().scheduleDirect(this::disposeAllAndRelease);
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed != 0;
+    }
+
+    private void disposeAllAndRelease() {
+        try {
+            disposeAll();
+        } finally {
+            resources = null;
+        }
+    }
+
+    /** Dispose and remove every resource, throwing the failures once all of them were disposed. */
+    private void disposeAll() {
+        Disposable[] resources = this.resources;
+        int size = this.size;
+        this.size = 0;
+
+        List<Throwable> errors = null;
+        for (int i = 0; i < size; i++) {
+            Disposable resource = resources[i];
+            resources[i] = null;
+            try {
+                resource.dispose();
+            } catch (Throwable t) {
+                Exceptions.throwIfFatal(t);
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                }
+                errors.add(t);
+            }
+        }
+        if (errors != null) {
+            if (errors.size() == 1) {
+                throw Exceptions.propagate(errors.get(0));
+            }
+            throw new CompositeException(errors);
+        }
+    }
+}
@@ -13,15 +13,19 @@
  */
 package io.reactivex.rxjava3.android;
 
-import android.os.Looper;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * A {@linkplain Disposable disposable} which ensures its {@linkplain #onDispose()
  * dispose action} is executed on the main thread. When unsubscription occurs on a different
  * thread than the main thread, the action is posted to run on the main thread as soon as possible.
+ * Actions of instances disposed off the main thread at around the same time share a single post.
  * <p>
  * Instances of this class are useful in creating observables which interact with APIs that can
  * only be used on the main thread, such as UI objects.
@@ -53,29 +57,104 @@ public abstract class MainThreadDisposable implements Disposable {
      * @throws IllegalStateException when called from any other thread.
      */
     public static void verifyMainThread() {
-        if (Looper.myLooper() != Looper.getMainLooper()) {
+        if (!MainThread.isMainThread()) {
             throw new IllegalStateException(
                 "Expected to be called on the main thread but was " + Thread.currentThread().getName());
         }
     }
 
-    private final AtomicBoolean unsubscribed = new AtomicBoolean();
+    private static final int ACTIVE = 0;
+    /** Disposed off the main thread, with the dispose action waiting to run on the main thread. */
+    private static final int DISPOSE_PENDING = 1;
+    private static final int DISPOSED = 2;
+
+    // A field updater rather than an atomic object keeps each instance to a single allocation.
+    private static final AtomicIntegerFieldUpdater<MainThreadDisposable> STATE =
+        AtomicIntegerFieldUpdater.newUpdater(MainThreadDisposable.class, "state");
+
+    private volatile int state; // ACTIVE, DISPOSE_PENDING, or DISPOSED.
 
     @Override
     public final boolean isDisposed() {
-        return unsubscribed.get();
+        return state != ACTIVE;
     }
 
     @Override
     public final void dispose() {
-        if (unsubscribed.compareAndSet(false, true)) {
-            if (Looper.myLooper() == Looper.getMainLooper()) {
+        if (MainThread.isMainThread()) {
+            if (STATE.compareAndSet(this, ACTIVE, DISPOSED)) {
                 onDispose();
-            } else {
-                AndroidSchedulers.mainThread().scheduleDirect(this::onDispose);
             }
+        } else if (STATE.compareAndSet(this, ACTIVE, DISPOSE_PENDING)) {
+            OffThreadDisposals.INSTANCE.offer(this);
+        }
+    }
+
+    /** Run the dispose action of an instance which was disposed off the main thread. */
+    private void runPendingDispose() {
+        try {
+            onDispose();
+        } finally {
+            state = DISPOSED;
         }
     }
 
     protected abstract void onDispose();
+
+    /**
+     * Instances disposed off the main thread whose actions are waiting to run. A single drain task
+     * is posted to the main thread for however many instances are queued before it runs.
+     * <p>
+     * A drain which cannot run must not strand later disposals, so a new drain is posted whenever
+     * the previous post threw or the disposable it returned has been disposed before the drain
+     * started. Any redundant drain finds the queue empty.
+     */
+    private static final class OffThreadDisposals implements Runnable {
+        static final OffThreadDisposals INSTANCE = new OffThreadDisposals();
+
+        private final Queue<MainThreadDisposable> queue = new ConcurrentLinkedQueue<>();
+        /** Whether a drain has been posted and has not yet started running. */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /** The post of the drain which has not yet started, or null while none is known. */
+        private volatile Disposable post;
+
+        void offer(MainThreadDisposable disposable) {
+            queue.offer(disposable);
+            if (scheduled.compareAndSet(false, true) || isCancelled()) {
+                post();
+            }
+        }
+
+        private boolean isCancelled() {
+            Disposable post = this.post;
+            return post != null && post.isDisposed();
+        }
+
+        private void post() {
+            try {
+                post = AndroidSchedulers.mainThread().scheduleDirect(this);
+            } catch (Throwable t) {
+                // Leave the disposal queued for the next one to post a drain.
+                scheduled.set(false);
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void run() {
+            // Cleared before polling so that disposals queued from now on post another drain. The
+            // post goes first so that it can only be replaced by one made after this drain.
+            post = null;
+            scheduled.set(false);
+            MainThreadDisposable disposable;
+            while ((disposable = queue.poll()) != null) {
+                try {
+                    disposable.runPendingDispose();
+                } catch (Throwable t) {
+                    RxJavaPlugins.onError(t);
+                }
+            }
+        }
+    }
 }
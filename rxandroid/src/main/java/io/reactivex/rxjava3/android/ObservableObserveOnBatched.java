@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableSource;
+import io.reactivex.rxjava3.core.Observer;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.operators.SpscLinkedArrayQueue;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Emits the items of {@code source} on {@code scheduler} in lists, draining every available item
+ * from a single scheduled run.
+ *
+ * @see AndroidTransformers#observeOnBatched(Scheduler, int)
+ */
+final class ObservableObserveOnBatched<T> extends Observable<List<T>> {
+    private final ObservableSource<T> source;
+    private final Scheduler scheduler;
+    private final int batchSize;
+
+    ObservableObserveOnBatched(ObservableSource<T> source, Scheduler scheduler, int batchSize) {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super List<T>> observer) {
+        source.subscribe(new BatchObserver<>(observer, scheduler.createWorker(), batchSize));
+    }
+
+    static final class BatchObserver<T> extends AtomicInteger
+            implements Observer<T>, Disposable, Runnable {
+        private final Observer<? super List<T>> downstream;
+        private final Scheduler.Worker worker;
+        private final int batchSize;
+        /** Only offered to from the upstream and polled from the worker, one thread at a time. */
+        private final SpscLinkedArrayQueue<T> queue;
+
+        private Disposable upstream;
+        private Throwable error;
+        private volatile boolean done;
+        private volatile boolean disposed;
+
+        BatchObserver(Observer<? super List<T>> downstream, Scheduler.Worker worker,
+                int batchSize) {
+            this.downstream = downstream;
+            this.worker = worker;
+            this.batchSize = batchSize;
+            this.queue = new SpscLinkedArrayQueue<>(Math.min(batchSize, 128));
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            queue.offer(t);
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                if (checkTerminated(done, queue.isEmpty())) {
+                    return;
+                }
+                List<T> batch = null;
+                for (;;) {
+                    T item = queue.poll();
+                    if (item == null) {
+                        break;
+                    }
+                    if (batch == null) {
+                        batch = new ArrayList<>(Math.min(batchSize, 16));
+                    }
+                    batch.add(item);
+                    if (batch.size() == batchSize) {
+                        downstream.onNext(batch);
+                        batch = null;
+                        if (checkTerminated(done, queue.isEmpty())) {
+                            return;
+                        }
+                    }
+                }
+                if (batch != null) {
+                    downstream.onNext(batch);
+                }
+                if (checkTerminated(done, queue.isEmpty())) {
+                    return;
+                }
+                missed = addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private boolean checkTerminated(boolean done, boolean empty) {
+            if (disposed) {
+                queue.clear();
+                return true;
+            }
+            if (done) {
+                Throwable error = this.error;
+                if (error != null) {
+                    disposed = true;
+                    queue.clear();
+                    downstream.onError(error);
+                    worker.dispose();
+                    return true;
+                }
+                if (empty) {
+                    disposed = true;
+                    downstream.onComplete();
+                    worker.dispose();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                upstream.dispose();
+                worker.dispose();
+                if (getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
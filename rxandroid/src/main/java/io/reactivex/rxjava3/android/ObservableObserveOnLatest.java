@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.core.ObservableSource;
+import io.reactivex.rxjava3.core.Observer;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Emits the items of {@code source} on {@code scheduler}, replacing any item which has not been
+ * delivered yet with the newest one.
+ *
+ * @see AndroidTransformers#observeLatestOn(Scheduler)
+ */
+final class ObservableObserveOnLatest<T> extends Observable<T> {
+    private final ObservableSource<T> source;
+    private final Scheduler scheduler;
+
+    ObservableObserveOnLatest(ObservableSource<T> source, Scheduler scheduler) {
+        this.source = source;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    protected void subscribeActual(Observer<? super T> observer) {
+        source.subscribe(new LatestObserver<>(observer, scheduler.createWorker()));
+    }
+
+    static final class LatestObserver<T> extends AtomicInteger
+            implements Observer<T>, Disposable, Runnable {
+        private final Observer<? super T> downstream;
+        private final Scheduler.Worker worker;
+        /** The newest item which has not been delivered yet, if any. */
+        private final AtomicReference<T> latest = new AtomicReference<>();
+
+        private Disposable upstream;
+        private Throwable error;
+        private volatile boolean done;
+        private volatile boolean disposed;
+
+        LatestObserver(Observer<? super T> downstream, Scheduler.Worker worker) {
+            this.downstream = downstream;
+            this.worker = worker;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            upstream = d;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            if (done) {
+                return;
+            }
+            latest.lazySet(t);
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            if (done) {
+                RxJavaPlugins.onError(e);
+                return;
+            }
+            error = e;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        /** Schedule a delivery unless one is already pending. */
+        private void schedule() {
+            if (getAndIncrement() == 0) {
+                worker.schedule(this);
+            }
+        }
+
+        /**
+         * Delivers at most one item. Items which arrive while it is being delivered schedule
+         * another run rather than being delivered from this one, so the downstream is called at
+         * most once per dispatch.
+         */
+        @Override
+        public void run() {
+            int missed = get();
+            if (checkTerminated(done, latest.get() == null)) {
+                return;
+            }
+            T item = latest.getAndSet(null);
+            if (item != null) {
+                downstream.onNext(item);
+            }
+            if (checkTerminated(done, latest.get() == null)) {
+                return;
+            }
+            if (addAndGet(-missed) != 0) {
+                worker.schedule(this);
+            }
+        }
+
+        private boolean checkTerminated(boolean done, boolean empty) {
+            if (disposed) {
+                latest.lazySet(null);
+                return true;
+            }
+            if (done) {
+                Throwable error = this.error;
+                if (error != null) {
+                    disposed = true;
+                    latest.lazySet(null);
+                    downstream.onError(error);
+                    worker.dispose();
+                    return true;
+                }
+                if (empty) {
+                    disposed = true;
+                    downstream.onComplete();
+                    worker.dispose();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void dispose() {
+            if (!disposed) {
+                disposed = true;
+                upstream.dispose();
+                worker.dispose();
+                if (getAndIncrement() == 0) {
+                    latest.lazySet(null);
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
@@ -25,6 +25,14 @@ public final class RxAndroidPlugins {
 
     private static volatile Function<Callable<Scheduler>, Scheduler> onInitMainThreadHandler;
     private static volatile Function<Scheduler, Scheduler> onMainThreadHandler;
+    private static volatile Function<Callable<Scheduler>, Scheduler> onInitFrameHandler;
+    private static volatile Function<Scheduler, Scheduler> onFrameHandler;
+    private static volatile Function<Callable<Scheduler>, Scheduler> onInitMainThreadIdleHandler;
+    private static volatile Function<Scheduler, Scheduler> onMainThreadIdleHandler;
+    private static volatile SchedulerMetricsListener schedulerMetricsListener;
+    private static volatile StallDetector stallDetector;
+    private static volatile SchedulerHopListener schedulerHopListener;
+    private static volatile Thread mainThread;
 
     public static void setInitMainThreadSchedulerHandler(Function<Callable<Scheduler>, Scheduler> handler) {
         onInitMainThreadHandler = handler;
@@ -56,6 +64,140 @@ public final class RxAndroidPlugins {
         return apply(f, scheduler);
     }
 
+    public static void setInitFrameSchedulerHandler(Function<Callable<Scheduler>, Scheduler> handler) {
+        onInitFrameHandler = handler;
+    }
+
+    public static Scheduler initFrameScheduler(Callable<Scheduler> scheduler) {
+        if (scheduler == null) {
+            throw new NullPointerException("scheduler == null");
+        }
+        Function<Callable<Scheduler>, Scheduler> f = onInitFrameHandler;
+        if (f == null) {
+            return callRequireNonNull(scheduler);
+        }
+        return applyRequireNonNull(f, scheduler);
+    }
+
+    public static void setFrameSchedulerHandler(Function<Scheduler, Scheduler> handler) {
+        onFrameHandler = handler;
+    }
+
+    public static Scheduler onFrameScheduler(Scheduler scheduler) {
+        if (scheduler == null) {
+            throw new NullPointerException("scheduler == null");
+        }
+        Function<Scheduler, Scheduler> f = onFrameHandler;
+        if (f == null) {
+            return scheduler;
+        }
+        return apply(f, scheduler);
+    }
+
+    public static void setInitMainThreadIdleSchedulerHandler(Function<Callable<Scheduler>, Scheduler> handler) {
+        onInitMainThreadIdleHandler = handler;
+    }
+
+    public static Scheduler initMainThreadIdleScheduler(Callable<Scheduler> scheduler) {
+        if (scheduler == null) {
+            throw new NullPointerException("scheduler == null");
+        }
+        Function<Callable<Scheduler>, Scheduler> f = onInitMainThreadIdleHandler;
+        if (f == null) {
+            return callRequireNonNull(scheduler);
+        }
+        return applyRequireNonNull(f, scheduler);
+    }
+
+    public static void setMainThreadIdleSchedulerHandler(Function<Scheduler, Scheduler> handler) {
+        onMainThreadIdleHandler = handler;
+    }
+
+    public static Scheduler onMainThreadIdleScheduler(Scheduler scheduler) {
+        if (scheduler == null) {
+            throw new NullPointerException("scheduler == null");
+        }
+        Function<Scheduler, Scheduler> f = onMainThreadIdleHandler;
+        if (f == null) {
+            return scheduler;
+        }
+        return apply(f, scheduler);
+    }
+
+    /**
+     * Set a listener which is told the queueing delay and running time of every task run by the
+     * looper-backed schedulers. Tasks are only measured while a listener is set, so there is no
+     * overhead otherwise. Tasks scheduled while no listener was set are never reported.
+     *
+     * @param listener the listener, or null to stop measuring
+     */
+    public static void setSchedulerMetricsListener(SchedulerMetricsListener listener) {
+        schedulerMetricsListener = listener;
+    }
+
+    /**
+     * Returns the current scheduler metrics listener.
+     * @return the listener, may be null
+     */
+    public static SchedulerMetricsListener getSchedulerMetricsListener() {
+        return schedulerMetricsListener;
+    }
+
+    /**
+     * Set a listener which is told whether each task scheduled on an immediate looper-backed
+     * scheduler ran synchronously or hopped through the looper, to see how many hops were avoided.
+     *
+     * @param listener the listener, or null to stop reporting
+     */
+    public static void setSchedulerHopListener(SchedulerHopListener listener) {
+        schedulerHopListener = listener;
+    }
+
+    /**
+     * Returns the current scheduler hop listener.
+     * @return the listener, may be null
+     */
+    public static SchedulerHopListener getSchedulerHopListener() {
+        return schedulerHopListener;
+    }
+
+    /**
+     * Set a detector which reports tasks that block the looper of a looper-backed scheduler for
+     * too long. Only tasks scheduled while a detector is set can have their origin captured.
+     *
+     * @param detector the detector, or null to stop detecting stalls
+     */
+    public static void setStallDetector(StallDetector detector) {
+        stallDetector = detector;
+    }
+
+    /**
+     * Returns the current stall detector.
+     * @return the detector, may be null
+     */
+    public static StallDetector getStallDetector() {
+        return stallDetector;
+    }
+
+    /**
+     * Set the thread remembered as the Android main thread by
+     * {@link io.reactivex.rxjava3.android.MainThread#isMainThread()}, which then only compares the
+     * calling thread with it. Calls from other threads still check the looper.
+     *
+     * @param thread the main thread, or null to forget it
+     */
+    public static void setMainThread(Thread thread) {
+        mainThread = thread;
+    }
+
+    /**
+     * Returns the thread remembered as the Android main thread.
+     * @return the thread, may be null
+     */
+    public static Thread getMainThread() {
+        return mainThread;
+    }
+
     /**
      * Returns the current hook function.
      * @return the hook function, may be null
@@ -73,11 +215,52 @@ public final class RxAndroidPlugins {
     }
 
     /**
-     * Removes all handlers and resets the default behavior.
+     * Returns the current hook function.
+     * @return the hook function, may be null
+     */
+    public static Function<Callable<Scheduler>, Scheduler> getInitFrameSchedulerHandler() {
+        return onInitFrameHandler;
+    }
+
+    /**
+     * Returns the current hook function.
+     * @return the hook function, may be null
+     */
+    public static Function<Scheduler, Scheduler> getOnFrameSchedulerHandler() {
+        return onFrameHandler;
+    }
+
+    /**
+     * Returns the current hook function.
+     * @return the hook function, may be null
+     */
+    public static Function<Callable<Scheduler>, Scheduler> getInitMainThreadIdleSchedulerHandler() {
+        return onInitMainThreadIdleHandler;
+    }
+
+    /**
+     * Returns the current hook function.
+     * @return the hook function, may be null
+     */
+    public static Function<Scheduler, Scheduler> getOnMainThreadIdleSchedulerHandler() {
+        return onMainThreadIdleHandler;
+    }
+
+    /**
+     * Removes all handlers and resets the default behavior. This includes forgetting the
+     * remembered main thread, for tests which change which thread is the main thread.
      */
     public static void reset() {
         setInitMainThreadSchedulerHandler(null);
         setMainThreadSchedulerHandler(null);
+        setInitFrameSchedulerHandler(null);
+        setFrameSchedulerHandler(null);
+        setInitMainThreadIdleSchedulerHandler(null);
+        setMainThreadIdleSchedulerHandler(null);
+        setSchedulerMetricsListener(null);
+        setStallDetector(null);
+        setSchedulerHopListener(null);
+        setMainThread(null);
     }
 
     static Scheduler callRequireNonNull(Callable<Scheduler> s) {
@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.plugins;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.core.Scheduler;
+
+/**
+ * Receives whether each task scheduled on an immediate looper-backed scheduler ran synchronously
+ * or hopped through the looper's message queue. Only schedulers created with
+ * {@link io.reactivex.rxjava3.android.schedulers.SchedulerOptions.Builder#immediate(boolean)
+ * immediate} enabled, such as
+ * {@link io.reactivex.rxjava3.android.schedulers.AndroidSchedulers#mainThreadImmediate()
+ * mainThreadImmediate()}, report to this listener, and only for tasks without a delay.
+ *
+ * @see RxAndroidPlugins#setSchedulerHopListener(SchedulerHopListener)
+ */
+public interface SchedulerHopListener {
+    /**
+     * Called on the scheduling thread once a task has been run synchronously, deferred behind the
+     * task running on the same worker, or posted.
+     *
+     * @param scheduler the scheduler which the task was scheduled on
+     * @param looper the looper of the scheduler
+     * @param hopAvoided true if the task ran on the calling thread instead of being posted to
+     * {@code looper}, including tasks deferred until the task running on the same worker returns
+     */
+    void onTaskScheduled(Scheduler scheduler, Looper looper, boolean hopAvoided);
+}
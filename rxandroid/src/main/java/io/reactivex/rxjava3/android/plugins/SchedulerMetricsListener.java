@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.plugins;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.core.Scheduler;
+
+/**
+ * Receives timing information for every task run by the looper-backed schedulers of
+ * {@link io.reactivex.rxjava3.android.schedulers.AndroidSchedulers AndroidSchedulers}.
+ *
+ * @see RxAndroidPlugins#setSchedulerMetricsListener(SchedulerMetricsListener)
+ */
+public interface SchedulerMetricsListener {
+    /**
+     * Called on the looper thread after a task has run, whether it completed normally or threw.
+     * All timestamps are in the {@link System#nanoTime()} time base.
+     *
+     * @param scheduler the scheduler which the task was scheduled on
+     * @param looper the looper which ran the task
+     * @param task the task as it was scheduled, after the
+     * {@linkplain io.reactivex.rxjava3.plugins.RxJavaPlugins#onSchedule(Runnable) schedule hook}
+     * @param enqueueNanos when the task became eligible to run: the time it was scheduled plus
+     * any requested delay. The difference to {@code dispatchNanos} is the time spent waiting
+     * behind other work on the looper.
+     * @param dispatchNanos when the task started running
+     * @param durationNanos how long the task ran for
+     */
+    void onTaskRun(Scheduler scheduler, Looper looper, Runnable task, long enqueueNanos,
+            long dispatchNanos, long durationNanos);
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.plugins;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.core.Scheduler;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports tasks which block the looper of an
+ * {@link io.reactivex.rxjava3.android.schedulers.AndroidSchedulers AndroidSchedulers} scheduler for
+ * longer than a threshold, such as a slow {@code onNext} delivered on the main thread.
+ * <p>
+ * Fast tasks only pay for two {@link System#nanoTime()} calls and never allocate. To point at the
+ * code which scheduled a slow task, a stack trace of the scheduling thread is captured for a
+ * sample of tasks and passed along if that task stalls.
+ *
+ * @see RxAndroidPlugins#setStallDetector(StallDetector)
+ */
+public final class StallDetector {
+    /** Receives tasks which ran for at least the threshold. */
+    public interface Listener {
+        /**
+         * Called on the looper thread after a slow task has run.
+         *
+         * @param scheduler the scheduler which the task was scheduled on
+         * @param looper the looper which was blocked
+         * @param task the task as it was scheduled, after the
+         * {@linkplain io.reactivex.rxjava3.plugins.RxJavaPlugins#onSchedule(Runnable) schedule hook}.
+         * For {@code observeOn} this is the operator's observer.
+         * @param durationNanos how long the task ran for
+         * @param origin the stack trace of the thread which scheduled the task, or null if none was
+         * captured for this task
+         */
+        void onStall(Scheduler scheduler, Looper looper, Runnable task, long durationNanos,
+                Throwable origin);
+    }
+
+    public static Builder builder(Listener listener) {
+        if (listener == null) throw new NullPointerException("listener == null");
+        return new Builder(listener);
+    }
+
+    private final Listener listener;
+    private final long thresholdNanos;
+    private final int originSampleRate;
+    /** Tasks scheduled by each thread, so that sampling never contends on a shared counter. */
+    private final ThreadLocal<int[]> scheduled = new ThreadLocal<int[]>() {
+        @Override protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    StallDetector(Builder builder) {
+        this.listener = builder.listener;
+        this.thresholdNanos = builder.thresholdNanos;
+        this.originSampleRate = builder.originSampleRate;
+    }
+
+    public Listener getListener() {
+        return listener;
+    }
+
+    /** The running time in {@code unit} from which a task is reported. */
+    public long getThreshold(TimeUnit unit) {
+        return unit.convert(thresholdNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** One in how many scheduled tasks captures its origin, or 0 if origins are never captured. */
+    public int getOriginSampleRate() {
+        return originSampleRate;
+    }
+
+    /** Whether a task which ran for {@code durationNanos} has stalled its looper. */
+    public boolean isStall(long durationNanos) {
+        return durationNanos >= thresholdNanos;
+    }
+
+    /**
+     * Called by schedulers on the scheduling thread as a task is scheduled. Returns a stack trace
+     * of the calling thread if this task is sampled, or null otherwise. Each thread samples one in
+     * every {@linkplain #getOriginSampleRate() rate} of the tasks it schedules, starting with its
+     * first.
+     */
+    public Throwable sampleOrigin() {
+        int rate = originSampleRate;
+        if (rate == 0) {
+            return null;
+        }
+        if (rate > 1) {
+            int[] count = scheduled.get();
+            int index = count[0];
+            count[0] = index + 1 == rate ? 0 : index + 1;
+            if (index != 0) {
+                return null;
+            }
+        }
+        return new Throwable("Task scheduled here");
+    }
+
+    public static final class Builder {
+        static final long DEFAULT_THRESHOLD_MILLIS = 100;
+        static final int DEFAULT_ORIGIN_SAMPLE_RATE = 100;
+
+        final Listener listener;
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_THRESHOLD_MILLIS);
+        int originSampleRate = DEFAULT_ORIGIN_SAMPLE_RATE;
+
+        Builder(Listener listener) {
+            this.listener = listener;
+        }
+
+        /** Report tasks running for at least {@code threshold}. Defaults to 100 milliseconds. */
+        public Builder threshold(long threshold, TimeUnit unit) {
+            if (unit == null) throw new NullPointerException("unit == null");
+            if (threshold <= 0) throw new IllegalArgumentException("threshold <= 0: " + threshold);
+            this.thresholdNanos = unit.toNanos(threshold);
+            return this;
+        }
+
+        /**
+         * Capture the scheduling stack trace of one in every {@code rate} tasks, or of none if
+         * {@code rate} is 0. A rate of 1 captures every task which is useful while debugging but
+         * costly in production. Defaults to 100.
+         */
+        public Builder originSampleRate(int rate) {
+            if (rate < 0) throw new IllegalArgumentException("rate < 0: " + rate);
+            this.originSampleRate = rate;
+            return this;
+        }
+
+        public StallDetector build() {
+            return new StallDetector(this);
+        }
+    }
+}
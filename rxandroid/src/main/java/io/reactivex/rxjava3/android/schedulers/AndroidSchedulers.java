@@ -24,13 +24,46 @@ import io.reactivex.rxjava3.core.Scheduler;
 /** Android-specific Schedulers. */
 public final class AndroidSchedulers {
 
+    /** Declared first since creating the main thread scheduler already goes through it. */
+    private static final SchedulerCache CACHE = new SchedulerCache();
+    /** The options of {@link #from(Looper, boolean)} without async messaging. */
+    private static final SchedulerOptions SYNC = SchedulerOptions.builder().async(false).build();
+
     private static final class MainHolder {
-        static final Scheduler DEFAULT = internalFrom(Looper.getMainLooper(), true);
+        static final Scheduler DEFAULT =
+            internalFrom(Looper.getMainLooper(), SchedulerOptions.DEFAULT);
     }
 
     private static final Scheduler MAIN_THREAD =
         RxAndroidPlugins.initMainThreadScheduler(() -> MainHolder.DEFAULT);
 
+    // The variants below are created on first use, and through an init hook so that tests which
+    // replace them never touch the main looper.
+
+    private static final class HighPriorityHolder {
+        static final Scheduler DEFAULT = RxAndroidPlugins.initMainThreadScheduler(
+            () -> internalFrom(Looper.getMainLooper(),
+                SchedulerOptions.builder().priority(Priority.HIGH).build()));
+    }
+
+    private static final class ImmediateHolder {
+        static final Scheduler DEFAULT = RxAndroidPlugins.initMainThreadScheduler(
+            () -> internalFrom(Looper.getMainLooper(),
+                SchedulerOptions.builder().immediate(true).build()));
+    }
+
+    private static final class IdleHolder {
+        static final Scheduler DEFAULT = RxAndroidPlugins.initMainThreadIdleScheduler(
+            () -> new IdleScheduler(new Handler(Looper.getMainLooper())));
+    }
+
+    private static final class FrameHolder {
+        static final Scheduler DEFAULT = RxAndroidPlugins.initFrameScheduler(
+            () -> Build.VERSION.SDK_INT >= 16
+                ? new ChoreographerScheduler(new Handler(Looper.getMainLooper()))
+                : MainHolder.DEFAULT);
+    }
+
     /**
      * A {@link Scheduler} which executes actions on the Android main thread.
      * <p>
@@ -42,10 +75,84 @@ public final class AndroidSchedulers {
         return RxAndroidPlugins.onMainThreadScheduler(MAIN_THREAD);
     }
 
+    /**
+     * A {@link Scheduler} which executes actions on the Android main thread with {@code priority}.
+     * <p>
+     * With {@link Priority#HIGH}, actions run ahead of messages which are already waiting on the
+     * main thread, such as bulk updates posted from background threads, while still letting those
+     * messages run between batches of actions. {@link Priority#NORMAL} returns
+     * {@link #mainThread()}.
+     * <p>
+     * The returned scheduler is created and passed through the same hooks as {@link #mainThread()}.
+     *
+     * @see SchedulerOptions.Builder#priority(Priority)
+     */
+    public static Scheduler mainThread(Priority priority) {
+        if (priority == null) throw new NullPointerException("priority == null");
+        if (priority == Priority.NORMAL) {
+            return mainThread();
+        }
+        return RxAndroidPlugins.onMainThreadScheduler(HighPriorityHolder.DEFAULT);
+    }
+
+    /**
+     * A {@link Scheduler} which executes actions on the Android main thread, running them
+     * synchronously when scheduled from the main thread instead of posting them.
+     * <p>
+     * This suits consumers which only need to be on the main thread, where an
+     * {@code observeOn(mainThread())} added defensively would otherwise cost a looper hop even
+     * when the upstream already emits on the main thread. Actions are still posted when scheduled
+     * from another thread, when delayed, or when an earlier action of the same worker is still
+     * waiting in the queue, so ordering is preserved.
+     * <p>
+     * Set a {@link io.reactivex.rxjava3.android.plugins.SchedulerHopListener SchedulerHopListener}
+     * to see how many hops were avoided. The returned scheduler is created and passed through the
+     * same hooks as {@link #mainThread()}.
+     *
+     * @see SchedulerOptions.Builder#immediate(boolean)
+     */
+    public static Scheduler mainThreadImmediate() {
+        return RxAndroidPlugins.onMainThreadScheduler(ImmediateHolder.DEFAULT);
+    }
+
+    /**
+     * A {@link Scheduler} which executes actions on the Android main thread in the next frame.
+     * <p>
+     * Actions are run from a {@link android.view.Choreographer Choreographer} frame callback. All
+     * actions submitted before a frame begins run together in that frame, which aligns UI updates
+     * with VSYNC and avoids repeated layouts when an upstream emits faster than the display
+     * refreshes. Actions submitted while a frame is running are deferred to the following frame.
+     * <p>
+     * On API < 16, where {@code Choreographer} is unavailable, actions are posted to the main
+     * thread as soon as possible in the same way as {@link #mainThread()}.
+     */
+    public static Scheduler frame() {
+        return RxAndroidPlugins.onFrameScheduler(FrameHolder.DEFAULT);
+    }
+
+    /**
+     * A {@link Scheduler} which executes actions on the Android main thread once it is idle.
+     * <p>
+     * Actions are run from a {@link android.os.MessageQueue.IdleHandler IdleHandler} when the main
+     * thread has no messages which are due, a few at a time, so that they do not compete with input
+     * handling and frame rendering. This suits non-urgent work such as pre-warming caches,
+     * prefetching, or flushing analytics. Delayed actions wait for their delay and then for the
+     * main thread to be idle.
+     * <p>
+     * Actions may be deferred for as long as the main thread stays busy, so they should not be
+     * used for work which the user is waiting on.
+     */
+    public static Scheduler mainThreadIdle() {
+        return RxAndroidPlugins.onMainThreadIdleScheduler(IdleHolder.DEFAULT);
+    }
+
     /**
      * A {@link Scheduler} which executes actions on {@code looper}.
      * <p>
      * The returned scheduler will post asynchronous messages to the looper by default.
+     * <p>
+     * Calls for the same looper and options return the same scheduler for as long as it is in use,
+     * so this method is cheap to call repeatedly.
      *
      * @see #from(Looper, boolean)
      */
@@ -62,27 +169,89 @@ public final class AndroidSchedulers {
      */
     public static Scheduler from(Looper looper, boolean async) {
         if (looper == null) throw new NullPointerException("looper == null");
-        return internalFrom(looper, async);
+        return internalFrom(looper, async ? SchedulerOptions.DEFAULT : SYNC);
+    }
+
+    /**
+     * A {@link Scheduler} which executes actions on {@code looper} according to {@code options}.
+     *
+     * @see SchedulerOptions
+     */
+    public static Scheduler from(Looper looper, SchedulerOptions options) {
+        if (looper == null) throw new NullPointerException("looper == null");
+        if (options == null) throw new NullPointerException("options == null");
+        return internalFrom(looper, options);
+    }
+
+    /**
+     * A {@link Scheduler} backed by a new pool of {@code size} looper threads running at
+     * {@link android.os.Process#THREAD_PRIORITY_BACKGROUND THREAD_PRIORITY_BACKGROUND}.
+     *
+     * @see #looperPool(int, int)
+     */
+    public static Scheduler looperPool(int size) {
+        return looperPool(size, android.os.Process.THREAD_PRIORITY_BACKGROUND);
+    }
+
+    /**
+     * A {@link Scheduler} backed by a new pool of {@code size} looper threads.
+     * <p>
+     * Each {@link Scheduler.Worker Worker} is bound to the looper with the fewest pending tasks
+     * when it is created, and runs all of its actions serially on that looper. Separate workers run
+     * in parallel across the pool. This suits callbacks which require a looper, such as sensor or
+     * camera callbacks, when one looper thread is not enough.
+     * <p>
+     * The threads are started immediately and run until {@link Scheduler#shutdown()} is called on
+     * the returned scheduler, after which it no longer runs any actions.
+     *
+     * @param priority the priority of the threads, a value from {@link android.os.Process} such as
+     * {@link android.os.Process#THREAD_PRIORITY_BACKGROUND THREAD_PRIORITY_BACKGROUND}
+     */
+    public static Scheduler looperPool(int size, int priority) {
+        if (size <= 0) throw new IllegalArgumentException("size <= 0: " + size);
+        if (priority < android.os.Process.THREAD_PRIORITY_URGENT_AUDIO
+                || priority > android.os.Process.THREAD_PRIORITY_LOWEST) {
+            throw new IllegalArgumentException("Invalid priority: " + priority);
+        }
+        SchedulerOptions options = SchedulerOptions.DEFAULT;
+        return new LooperPoolScheduler(size, priority, resolveAsync(options.async), options);
+    }
+
+    private static Scheduler internalFrom(Looper looper, SchedulerOptions options) {
+        return CACHE.get(looper, options);
     }
 
-    @SuppressLint("NewApi") // Checking for an @hide API.
-    private static Scheduler internalFrom(Looper looper, boolean async) {
+    /** Returns the effective async flag for {@code async} on this API level. */
+    static boolean resolveAsync(boolean async) {
         // Below code exists in androidx-core as well, but is left here rather than include an
         // entire extra dependency.
         // https://developer.android.com/reference/kotlin/androidx/core/os/MessageCompat?hl=en#setAsynchronous(android.os.Message,%20kotlin.Boolean)
         if (Build.VERSION.SDK_INT < 16) {
-            async = false;
-        } else if (async && Build.VERSION.SDK_INT < 22) {
+            return false;
+        }
+        if (async && Build.VERSION.SDK_INT < 22) {
+            return AsyncProbe.AVAILABLE;
+        }
+        return async;
+    }
+
+    /** Probes for the @hide async API at most once. */
+    private static final class AsyncProbe {
+        static final boolean AVAILABLE = probe();
+
+        @SuppressLint("NewApi") // Checking for an @hide API.
+        private static boolean probe() {
             // Confirm that the method is available on this API level despite being @hide.
             Message message = Message.obtain();
             try {
                 message.setAsynchronous(true);
+                return true;
             } catch (NoSuchMethodError e) {
-                async = false;
+                return false;
+            } finally {
+                message.recycle();
             }
-            message.recycle();
         }
-        return new HandlerScheduler(new Handler(looper), async);
     }
 
     private AndroidSchedulers() {
@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base class for schedulers which queue their tasks until the looper reaches some point, such as
+ * the next frame or going idle, and then run them in batches.
+ * <p>
+ * Delayed tasks wait on the handler and join the queue once their delay has elapsed.
+ */
+abstract class BatchingScheduler extends Scheduler {
+    final Handler handler;
+    private final Queue<BatchedTask> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    BatchingScheduler(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public final Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+        if (run == null) throw new NullPointerException("run == null");
+        if (unit == null) throw new NullPointerException("unit == null");
+
+        run = RxJavaPlugins.onSchedule(run);
+        BatchedTask task = new BatchedTask(this, null, run);
+        schedule(task, unit.toMillis(delay), null);
+        return task;
+    }
+
+    @Override
+    public final Worker createWorker() {
+        return new BatchingWorker(this);
+    }
+
+    /** Arrange for {@link #runBatch} to be called, as the queue has tasks which are waiting. */
+    abstract void requestBatch();
+
+    /**
+     * Run at most {@code max} of the tasks which were queued before this call, requesting another
+     * batch if any are left afterwards.
+     */
+    final void runBatch(int max) {
+        int count = Math.min(size.get(), max);
+        for (int i = 0; i < count; i++) {
+            queue.poll().runBatched();
+        }
+        if (size.addAndGet(-count) != 0) {
+            requestBatch();
+        }
+    }
+
+    private void schedule(BatchedTask task, long delayMillis, Object token) {
+        if (delayMillis > 0) {
+            task.delayed = true;
+            handler.postAtTime(task, token, SystemClock.uptimeMillis() + delayMillis);
+        } else {
+            enqueue(task);
+        }
+    }
+
+    private void enqueue(BatchedTask task) {
+        queue.offer(task);
+        if (size.getAndIncrement() == 0) {
+            requestBatch();
+        }
+    }
+
+    private static final class BatchingWorker extends Worker {
+        private final BatchingScheduler scheduler;
+
+        volatile boolean disposed;
+
+        BatchingWorker(BatchingScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            if (run == null) throw new NullPointerException("run == null");
+            if (unit == null) throw new NullPointerException("unit == null");
+
+            if (disposed) {
+                return Disposable.disposed();
+            }
+
+            run = RxJavaPlugins.onSchedule(run);
+            BatchedTask task = new BatchedTask(scheduler, this, run);
+            scheduler.schedule(task, unit.toMillis(delay), this /* token */);
+            return task;
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            // Delayed tasks are still in the handler. Queued tasks are skipped when they come up.
+            scheduler.handler.removeCallbacksAndMessages(this /* token */);
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * A task which joins the queue when posted to the handler with a delay, and which runs its
+     * delegate from {@link #runBatched()}.
+     */
+    private static final class BatchedTask implements Runnable, Disposable {
+        private final BatchingScheduler scheduler;
+        private final BatchingWorker worker;
+        private final Runnable delegate;
+
+        boolean delayed; // Written before the task is published. Only delayed tasks are posted.
+        private volatile boolean disposed;
+
+        BatchedTask(BatchingScheduler scheduler, BatchingWorker worker, Runnable delegate) {
+            this.scheduler = scheduler;
+            this.worker = worker;
+            this.delegate = delegate;
+        }
+
+        /** Invoked by the handler once a delay has elapsed. */
+        @Override
+        public void run() {
+            if (!disposed) {
+                scheduler.enqueue(this);
+            }
+        }
+
+        void runBatched() {
+            if (disposed || (worker != null && worker.disposed)) {
+                return;
+            }
+            try {
+                delegate.run();
+            } catch (Throwable t) {
+                RxJavaPlugins.onError(t);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            if (delayed) {
+                scheduler.handler.removeCallbacks(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
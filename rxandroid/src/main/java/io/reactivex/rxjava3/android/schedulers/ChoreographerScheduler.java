@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.annotation.TargetApi;
+import android.os.Handler;
+import android.view.Choreographer;
+import io.reactivex.rxjava3.android.MainThread;
+
+/**
+ * A scheduler which runs tasks in the next frame callback of the main thread's
+ * {@link Choreographer}. Tasks submitted before a frame are all run together in that frame, while
+ * tasks submitted while a frame is running are deferred to the following frame.
+ * <p>
+ * Delayed tasks wait on the main thread handler and join the frame queue once their delay has
+ * elapsed.
+ */
+@TargetApi(16)
+final class ChoreographerScheduler extends BatchingScheduler
+        implements Choreographer.FrameCallback {
+    private final Runnable postFrameCallbackOnMain = new Runnable() {
+        @Override public void run() {
+            requestBatch();
+        }
+    };
+
+    /** The main thread's choreographer. Lazily obtained since it can only be read on that thread. */
+    private volatile Choreographer choreographer;
+
+    /** @param handler a handler for the main looper. */
+    ChoreographerScheduler(Handler handler) {
+        super(handler);
+    }
+
+    @Override
+    void requestBatch() {
+        Choreographer choreographer = this.choreographer;
+        if (choreographer == null) {
+            if (!MainThread.isMainThread()) {
+                handler.post(postFrameCallbackOnMain);
+                return;
+            }
+            choreographer = Choreographer.getInstance();
+            this.choreographer = choreographer;
+        }
+        // Posting a frame callback is safe from any thread.
+        choreographer.postFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        // Only run the tasks which were queued before this frame started.
+        runBatch(Integer.MAX_VALUE);
+    }
+}
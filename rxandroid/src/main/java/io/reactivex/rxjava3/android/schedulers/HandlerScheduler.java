@@ -15,89 +15,431 @@ package io.reactivex.rxjava3.android.schedulers;
 
 import android.annotation.SuppressLint;
 import android.os.Handler;
+import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
+import io.reactivex.rxjava3.android.MainThread;
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.plugins.SchedulerHopListener;
+import io.reactivex.rxjava3.android.plugins.SchedulerMetricsListener;
+import io.reactivex.rxjava3.android.plugins.StallDetector;
 import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.disposables.Disposable;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 final class HandlerScheduler extends Scheduler {
+    /** How deeply immediate tasks may nest inside each other before falling back to posting. */
+    static final int MAX_IMMEDIATE_DEPTH = 16;
+    /** How many trampolined tasks a worker runs in a row before yielding the rest to the looper. */
+    static final int MAX_TRAMPOLINE_BATCH = 128;
+    /** How many high priority tasks a drain runs before letting already queued messages run. */
+    static final int MAX_PRIORITY_BATCH = 64;
+
     private final Handler handler;
-    private final boolean async;
+    final boolean async;
+    private final boolean mainLooper;
+    private final SchedulerOptions options;
+    private final RunnablePool pool;
+    private final PriorityDrain priorityDrain; // Null unless high priority.
+    private final TimerWheel timerWheel; // Null unless enabled.
+    private final ImmediateHandlerWorker immediateDirect; // Null unless immediate.
+
+    /** Current nesting of tasks run immediately. Only accessed from the looper thread. */
+    int immediateDepth;
+    /** Whether a task is being timed for stall detection. Only accessed from the looper thread. */
+    private boolean timingTask;
 
     HandlerScheduler(Handler handler, boolean async) {
+        this(handler, async, SchedulerOptions.DEFAULT);
+    }
+
+    /**
+     * @param async the effective async flag which may differ from {@link SchedulerOptions#async}
+     * when the API level does not support async messages.
+     */
+    HandlerScheduler(Handler handler, boolean async, SchedulerOptions options) {
         this.handler = handler;
         this.async = async;
+        this.mainLooper = handler.getLooper() == Looper.getMainLooper();
+        this.options = options;
+        this.pool = options.pooled ? new RunnablePool(this) : null;
+        this.priorityDrain = options.priority == Priority.HIGH ? new PriorityDrain(this) : null;
+        this.timerWheel = options.timerWheelTickMillis > 0
+            ? new TimerWheel(handler, async, options.timerWheelTickMillis)
+            : null;
+        this.immediateDirect = options.immediate
+            ? new ImmediateHandlerWorker(this, new DirectWorker(this))
+            : null;
     }
 
     @Override
-    @SuppressLint("NewApi") // Async will only be true when the API is available to call.
     public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
         if (run == null) throw new NullPointerException("run == null");
         if (unit == null) throw new NullPointerException("unit == null");
 
         run = RxJavaPlugins.onSchedule(run);
-        ScheduledRunnable scheduled = new ScheduledRunnable(handler, run);
-        Message message = Message.obtain(handler, scheduled);
+        return scheduleDirectHooked(run, unit.toMillis(delay));
+    }
+
+    @Override
+    public Disposable schedulePeriodicallyDirect(Runnable run, long initialDelay, long period,
+            TimeUnit unit) {
+        if (run == null) throw new NullPointerException("run == null");
+        if (period < 0) throw new IllegalArgumentException("period < 0: " + period);
+        if (unit == null) throw new NullPointerException("unit == null");
+
+        run = RxJavaPlugins.onSchedule(run);
+        PeriodicRunnable periodic =
+            new PeriodicRunnable(this, null, run, sampleOrigin(), unit.toMillis(period));
+        periodic.start(unit.toMillis(initialDelay));
+        return periodic;
+    }
+
+    /** Schedule {@code run} which has already been passed through the schedule hook. */
+    Disposable scheduleDirectHooked(Runnable run, long delayMillis) {
+        run = measure(run, delayMillis);
+        if (immediateDirect != null) {
+            // Shares the trampoline and pending check of a worker to keep direct tasks in order.
+            return immediateDirect.scheduleActual(run, delayMillis);
+        }
+        return postDirect(run, delayMillis);
+    }
+
+    /** Post a direct task which has already been hooked and wrapped for metrics. */
+    Disposable postDirect(Runnable run, long delayMillis) {
+        ScheduledRunnable scheduled =
+            new ScheduledRunnable(this, null, run, sampleOrigin(), delayMillis > 0);
+        send(scheduled, null, delayMillis);
+        return scheduled;
+    }
+
+    /**
+     * Post {@code run} to the looper, or hand it to the priority drain when it is not delayed and
+     * this scheduler has a high priority, or to the timer wheel when it is delayed and the wheel
+     * is enabled.
+     *
+     * @param token used to remove delayed tasks in bulk with {@link #removeAllDelayed}, or null
+     */
+    @SuppressLint("NewApi") // Async will only be true when the API is available to call.
+    void send(Runnable run, Object token, long delayMillis) {
+        if (delayMillis > 0) {
+            if (timerWheel != null) {
+                timerWheel.add(run, token, delayMillis);
+                return;
+            }
+        } else if (priorityDrain != null) {
+            priorityDrain.offer(run);
+            return;
+        }
+        Message message = Message.obtain(handler, run);
+        message.obj = token;
         if (async) {
             message.setAsynchronous(true);
         }
-        handler.sendMessageDelayed(message, unit.toMillis(delay));
-        return scheduled;
+        handler.sendMessageDelayed(message, delayMillis);
+    }
+
+    /**
+     * Post {@code run} to the looper to run at {@code uptimeMillis}, or hand it to the timer wheel
+     * when it is enabled.
+     *
+     * @param token used to remove delayed tasks in bulk with {@link #removeAllDelayed}, or null
+     */
+    @SuppressLint("NewApi") // Async will only be true when the API is available to call.
+    void sendAtTime(Runnable run, Object token, long uptimeMillis) {
+        if (timerWheel != null) {
+            timerWheel.add(run, token, uptimeMillis - SystemClock.uptimeMillis());
+            return;
+        }
+        Message message = Message.obtain(handler, run);
+        message.obj = token;
+        if (async) {
+            message.setAsynchronous(true);
+        }
+        handler.sendMessageAtTime(message, uptimeMillis);
+    }
+
+    /** Remove a delayed task which was sent with {@link #send} and has not run yet. */
+    void removeDelayed(Runnable run) {
+        if (timerWheel != null) {
+            timerWheel.remove(run);
+        } else {
+            handler.removeCallbacks(run);
+        }
+    }
+
+    /** Remove all tasks which were sent with {@code token} and have not run yet. */
+    void removeAllDelayed(Object token) {
+        if (timerWheel != null) {
+            timerWheel.removeAll(token);
+        } else {
+            handler.removeCallbacksAndMessages(token);
+        }
     }
 
     @Override
-    public Worker createWorker() {
-        return new HandlerWorker(handler, async);
+    public LooperWorker createWorker() {
+        LooperWorker worker;
+        if (options.coalesce) {
+            worker = new CoalescingHandlerWorker(this);
+        } else {
+            worker = new HandlerWorker(this);
+        }
+        if (options.immediate) {
+            worker = new ImmediateHandlerWorker(this, worker);
+        }
+        return worker;
     }
 
-    private static final class HandlerWorker extends Worker {
-        private final Handler handler;
-        private final boolean async;
+    boolean isOnLooperThread() {
+        return mainLooper ? MainThread.isMainThread() : Looper.myLooper() == handler.getLooper();
+    }
 
-        private volatile boolean disposed;
+    /** Report to the {@link SchedulerHopListener}, if set, whether a task avoided a looper hop. */
+    void reportHop(boolean hopAvoided) {
+        SchedulerHopListener listener = RxAndroidPlugins.getSchedulerHopListener();
+        if (listener != null) {
+            try {
+                listener.onTaskScheduled(this, handler.getLooper(), hopAvoided);
+            } catch (Throwable t) {
+                RxJavaPlugins.onError(t);
+            }
+        }
+    }
 
-        HandlerWorker(Handler handler, boolean async) {
-            this.handler = handler;
-            this.async = async;
+    /**
+     * Wrap {@code run} to report its timing to the {@link SchedulerMetricsListener}, or return it
+     * unchanged when no listener is set.
+     */
+    Runnable measure(Runnable run, long delayMillis) {
+        if (RxAndroidPlugins.getSchedulerMetricsListener() == null) {
+            return run;
+        }
+        long enqueueNanos = System.nanoTime();
+        if (delayMillis > 0) {
+            enqueueNanos += TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        }
+        return new MeasuredRunnable(this, run, enqueueNanos);
+    }
+
+    /** Capture the scheduling thread's stack trace if the {@link StallDetector} samples it. */
+    static Throwable sampleOrigin() {
+        StallDetector detector = RxAndroidPlugins.getStallDetector();
+        return detector != null ? detector.sampleOrigin() : null;
+    }
+
+    /** Strip this scheduler's own wrappers to reveal the task as it was scheduled. */
+    static Runnable unwrap(Runnable run) {
+        for (;;) {
+            if (run instanceof MeasuredRunnable) {
+                run = ((MeasuredRunnable) run).delegate;
+            } else if (run instanceof TrampolinedRunnable) {
+                run = ((TrampolinedRunnable) run).delegate;
+            } else if (run instanceof LooperPoolScheduler.CountedRunnable) {
+                run = ((LooperPoolScheduler.CountedRunnable) run).delegate;
+            } else {
+                return run;
+            }
+        }
+    }
+
+    /** Run {@code run} synchronously on the looper thread, tracking the nesting depth. */
+    void runImmediately(Runnable run) {
+        immediateDepth++;
+        try {
+            runTask(run, null);
+        } finally {
+            immediateDepth--;
+        }
+    }
+
+    /**
+     * Run a task on the looper thread, routing its errors to {@link RxJavaPlugins#onError} and
+     * reporting it to the {@link StallDetector} if it runs for too long. A task run from within
+     * another task is only timed as part of the outer task.
+     *
+     * @return false if the task threw
+     */
+    boolean runTask(Runnable run, Throwable origin) {
+        StallDetector detector = RxAndroidPlugins.getStallDetector();
+        // A posted task of an immediate worker times each of the tasks it runs instead.
+        if (detector == null || timingTask || run instanceof PostedRunnable) {
+            try {
+                run.run();
+                return true;
+            } catch (Throwable t) {
+                RxJavaPlugins.onError(t);
+                return false;
+            }
+        }
+
+        boolean completed = false;
+        timingTask = true;
+        long start = System.nanoTime();
+        try {
+            run.run();
+            completed = true;
+        } catch (Throwable t) {
+            RxJavaPlugins.onError(t);
+        } finally {
+            timingTask = false;
+        }
+        long durationNanos = System.nanoTime() - start;
+        if (detector.isStall(durationNanos)) {
+            try {
+                detector.getListener()
+                    .onStall(this, handler.getLooper(), unwrap(run), durationNanos, origin);
+            } catch (Throwable t) {
+                RxJavaPlugins.onError(t);
+            }
+        }
+        return completed;
+    }
+
+    /**
+     * Base class for this scheduler's workers which performs input validation and applies the
+     * {@linkplain RxJavaPlugins#onSchedule(Runnable) schedule hook} and metrics exactly once.
+     */
+    abstract static class LooperWorker extends Worker {
+        private static final AtomicIntegerFieldUpdater<LooperWorker> DELAYED_PENDING =
+            AtomicIntegerFieldUpdater.newUpdater(LooperWorker.class, "delayedPending");
+
+        final HandlerScheduler scheduler;
+
+        /** Delayed tasks which are still waiting in the looper's queue. */
+        private volatile int delayedPending;
+
+        LooperWorker(HandlerScheduler scheduler) {
+            this.scheduler = scheduler;
         }
 
         @Override
-        @SuppressLint("NewApi") // Async will only be true when the API is available to call.
-        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+        public final Disposable schedule(Runnable run, long delay, TimeUnit unit) {
             if (run == null) throw new NullPointerException("run == null");
             if (unit == null) throw new NullPointerException("unit == null");
 
-            if (disposed) {
+            if (isDisposed()) {
                 return Disposable.disposed();
             }
 
             run = RxJavaPlugins.onSchedule(run);
+            return scheduleHooked(run, unit.toMillis(delay));
+        }
 
-            ScheduledRunnable scheduled = new ScheduledRunnable(handler, run);
+        /** Schedule {@code run} which has already been passed through the schedule hook. */
+        final Disposable scheduleHooked(Runnable run, long delayMillis) {
+            return scheduleActual(scheduler.measure(run, delayMillis), delayMillis);
+        }
 
-            Message message = Message.obtain(handler, scheduled);
-            message.obj = this; // Used as token for batch disposal of this worker's runnables.
+        /** Schedule {@code run} which has already been hooked and wrapped for metrics. */
+        abstract Disposable scheduleActual(Runnable run, long delayMillis);
 
-            if (async) {
-                message.setAsynchronous(true);
+        @Override
+        public final Disposable schedulePeriodically(Runnable run, long initialDelay, long period,
+                TimeUnit unit) {
+            if (run == null) throw new NullPointerException("run == null");
+            if (period < 0) throw new IllegalArgumentException("period < 0: " + period);
+            if (unit == null) throw new NullPointerException("unit == null");
+
+            if (isDisposed()) {
+                return Disposable.disposed();
             }
 
-            handler.sendMessageDelayed(message, unit.toMillis(delay));
+            run = RxJavaPlugins.onSchedule(run);
+            return schedulePeriodicallyActual(run, unit.toMillis(initialDelay),
+                unit.toMillis(period));
+        }
 
-            // Re-check disposed state for removing in case we were racing a call to dispose().
+        /** Schedule {@code run}, which has already been hooked, to run periodically. */
+        Disposable schedulePeriodicallyActual(Runnable run, long initialDelayMillis,
+                long periodMillis) {
+            PeriodicRunnable periodic =
+                new PeriodicRunnable(scheduler, this, run, sampleOrigin(), periodMillis);
+            periodic.start(initialDelayMillis);
+            return periodic;
+        }
+
+        /** Called before posting a delayed task so that a racing dispose() removes it. */
+        final void onDelayedPosted() {
+            DELAYED_PENDING.getAndIncrement(this);
+        }
+
+        /** Called once a delayed task is no longer waiting, whether it was delivered or disposed. */
+        final void onDelayedDone() {
+            DELAYED_PENDING.getAndDecrement(this);
+        }
+
+        /** Whether any delayed tasks of this worker may still be in the looper's queue. */
+        final boolean hasDelayedPending() {
+            return delayedPending != 0;
+        }
+    }
+
+    /**
+     * A worker which posts one message per task.
+     * <p>
+     * Disposing the worker does not search the looper's message queue for its non-delayed tasks.
+     * They are left in place and skip their delegate once delivered, so disposal costs the same no
+     * matter how many unrelated messages are queued. Delayed tasks could keep their delegate
+     * reachable for a long time, so they are removed, but only while the worker has any pending.
+     */
+    private static final class HandlerWorker extends LooperWorker {
+        private final RunnablePool pool; // Null when pooling is disabled.
+
+        private volatile boolean disposed;
+
+        HandlerWorker(HandlerScheduler scheduler) {
+            super(scheduler);
+            this.pool = scheduler.pool;
+        }
+
+        @Override
+        Disposable scheduleActual(Runnable run, long delayMillis) {
+            Runnable scheduled;
+            Disposable disposable;
+            if (pool != null && delayMillis <= 0) {
+                PooledRunnable pooled = pool.acquire(this, run, sampleOrigin());
+                scheduled = pooled;
+                disposable = pooled;
+            } else {
+                ScheduledRunnable scheduledRunnable =
+                    new ScheduledRunnable(scheduler, this, run, sampleOrigin(), delayMillis > 0);
+                scheduled = scheduledRunnable;
+                disposable = scheduledRunnable;
+            }
+
+            if (delayMillis > 0) {
+                onDelayedPosted();
+            }
+            // The worker is used as token for batch disposal of its delayed runnables.
+            scheduler.send(scheduled, this, delayMillis);
+
+            // Re-check disposed state in case we were racing a call to dispose(). Non-delayed
+            // tasks will skip themselves, but delayed tasks should not linger in the queue.
             if (disposed) {
-                handler.removeCallbacks(scheduled);
+                if (delayMillis > 0) {
+                    disposable.dispose();
+                }
                 return Disposable.disposed();
             }
 
-            return scheduled;
+            return disposable;
         }
 
         @Override
         public void dispose() {
             disposed = true;
-            handler.removeCallbacksAndMessages(this /* token */);
+            if (hasDelayedPending()) {
+                scheduler.removeAllDelayed(this /* token */);
+            }
         }
 
         @Override
@@ -106,29 +448,307 @@ final class HandlerScheduler extends Scheduler {
         }
     }
 
-    private static final class ScheduledRunnable implements Runnable, Disposable {
-        private final Handler handler;
+    /**
+     * A worker which queues non-delayed tasks internally and posts a single drain message to run
+     * all of them, rather than one message per task. The drain message is only posted when the
+     * queue transitions from empty to non-empty.
+     * <p>
+     * When a drain budget is set, a drain which exceeds it re-posts its message and returns so
+     * that other messages in the looper can run before the remaining tasks.
+     */
+    private static final class CoalescingHandlerWorker extends LooperWorker implements Runnable {
+        private final long drainBudgetNanos;
+        private final Queue<QueuedRunnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private volatile boolean disposed;
+
+        CoalescingHandlerWorker(HandlerScheduler scheduler) {
+            super(scheduler);
+            this.drainBudgetNanos = scheduler.options.drainBudgetNanos;
+        }
+
+        @Override
+        Disposable scheduleActual(Runnable run, long delayMillis) {
+            if (delayMillis > 0) {
+                ScheduledRunnable scheduled =
+                    new ScheduledRunnable(scheduler, this, run, sampleOrigin(), true);
+
+                onDelayedPosted();
+                // The worker is used as token for batch disposal of its delayed runnables.
+                scheduler.send(scheduled, this, delayMillis);
+
+                // Re-check disposed state for removing in case we were racing a call to dispose().
+                if (disposed) {
+                    scheduled.dispose();
+                    return Disposable.disposed();
+                }
+                return scheduled;
+            }
+
+            QueuedRunnable queued = new QueuedRunnable(scheduler, run, sampleOrigin());
+            queue.offer(queued);
+            if (wip.getAndIncrement() == 0) {
+                postDrain();
+            }
+
+            // Re-check disposed state for clearing in case we were racing a call to dispose().
+            if (disposed) {
+                queue.clear();
+                return Disposable.disposed();
+            }
+            return queued;
+        }
+
+        private void postDrain() {
+            scheduler.send(this, this, 0);
+        }
+
+        /** Drains the queue on the looper thread. Only ever invoked by the drain message. */
+        @Override
+        public void run() {
+            long budget = drainBudgetNanos;
+            long deadline = budget > 0 ? System.nanoTime() + budget : 0L;
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    if (disposed) {
+                        queue.clear();
+                        return;
+                    }
+                    QueuedRunnable queued = queue.poll();
+                    if (queued == null) {
+                        break;
+                    }
+                    queued.run();
+
+                    if (budget > 0 && System.nanoTime() - deadline >= 0 && !queue.isEmpty()) {
+                        // Yield to the looper. The work-in-progress count is left non-zero so
+                        // producers keep enqueueing without posting a competing drain message.
+                        postDrain();
+                        return;
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            queue.clear();
+            // A pending drain message finds the worker disposed and returns. Only delayed tasks
+            // need to be removed from the looper's queue.
+            if (hasDelayedPending()) {
+                scheduler.removeAllDelayed(this /* token */);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * Wraps another worker to run non-delayed tasks synchronously when they are scheduled from the
+     * looper thread, instead of paying for a full looper round-trip.
+     * <p>
+     * A task only runs immediately when none of this worker's previously posted non-delayed tasks
+     * are still waiting, so ordering is preserved. A task scheduled while one of this worker's
+     * tasks is running is queued on a trampoline and run once the current task returns, rather
+     * than re-entering it. Nesting across workers is bounded by {@link #MAX_IMMEDIATE_DEPTH} and
+     * a trampoline which keeps growing is handed back to the looper after
+     * {@link #MAX_TRAMPOLINE_BATCH} tasks.
+     */
+    private static final class ImmediateHandlerWorker extends LooperWorker {
+        private final LooperWorker delegate;
+        /** Non-delayed tasks posted through the delegate which have not run or been disposed. */
+        private final AtomicInteger posted = new AtomicInteger();
+
+        // State below is only accessed from the looper thread.
+        private final ArrayDeque<TrampolinedRunnable> trampoline = new ArrayDeque<>();
+        private boolean running;
+
+        ImmediateHandlerWorker(HandlerScheduler scheduler, LooperWorker delegate) {
+            super(scheduler);
+            this.delegate = delegate;
+        }
+
+        @Override
+        Disposable scheduleActual(Runnable run, long delayMillis) {
+            // Earlier tasks still waiting in the looper must run first.
+            if (delayMillis <= 0 && posted.get() == 0 && scheduler.isOnLooperThread()) {
+                if (running) {
+                    TrampolinedRunnable trampolined = new TrampolinedRunnable(run);
+                    trampoline.offer(trampolined);
+                    scheduler.reportHop(true);
+                    return trampolined;
+                }
+                if (scheduler.immediateDepth < MAX_IMMEDIATE_DEPTH) {
+                    runOnLooper(run);
+                    scheduler.reportHop(true);
+                    return Disposable.disposed();
+                }
+            }
+            Disposable disposable = post(run, delayMillis);
+            if (delayMillis <= 0) {
+                scheduler.reportHop(false);
+            }
+            return disposable;
+        }
+
+        @Override
+        Disposable schedulePeriodicallyActual(Runnable run, long initialDelayMillis,
+                long periodMillis) {
+            // Each run is paced by its deadline through the looper, so never run immediately.
+            return delegate.schedulePeriodicallyActual(run, initialDelayMillis, periodMillis);
+        }
+
+        private Disposable post(Runnable run, long delayMillis) {
+            boolean counted = delayMillis <= 0;
+            PostedRunnable postedRunnable = new PostedRunnable(this, run, counted);
+            if (counted) {
+                posted.getAndIncrement();
+            }
+            postedRunnable.upstream = delegate.scheduleActual(postedRunnable, delayMillis);
+            return postedRunnable;
+        }
+
+        void runOnLooper(Runnable run) {
+            running = true;
+            try {
+                scheduler.runImmediately(run);
+            } finally {
+                running = false;
+            }
+
+            int count = 0;
+            TrampolinedRunnable trampolined;
+            while ((trampolined = trampoline.poll()) != null) {
+                if (isDisposed()) {
+                    trampoline.clear();
+                    return;
+                }
+                if (++count > MAX_TRAMPOLINE_BATCH) {
+                    // Hand the remaining tasks back to the looper, in order, to avoid starving it.
+                    do {
+                        post(trampolined, 0);
+                    } while ((trampolined = trampoline.poll()) != null);
+                    return;
+                }
+                running = true;
+                try {
+                    scheduler.runImmediately(trampolined);
+                } finally {
+                    running = false;
+                }
+            }
+        }
+
+        void onPostedDone(boolean counted) {
+            if (counted) {
+                posted.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return delegate.isDisposed();
+        }
+    }
+
+    /**
+     * The delegate of the {@link ImmediateHandlerWorker} which an immediate scheduler uses for its
+     * direct tasks. It posts them as the scheduler does and, like the scheduler, is never disposed.
+     */
+    private static final class DirectWorker extends LooperWorker {
+        DirectWorker(HandlerScheduler scheduler) {
+            super(scheduler);
+        }
+
+        @Override
+        Disposable scheduleActual(Runnable run, long delayMillis) {
+            return scheduler.postDirect(run, delayMillis);
+        }
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return false;
+        }
+    }
+
+    /** A task of an {@link ImmediateHandlerWorker} which was posted through its delegate. */
+    private static final class PostedRunnable extends AtomicBoolean implements Runnable, Disposable {
+        private final ImmediateHandlerWorker worker;
         private final Runnable delegate;
+        private final boolean counted;
 
-        private volatile boolean disposed; // Tracked solely for isDisposed().
+        volatile Disposable upstream;
 
-        ScheduledRunnable(Handler handler, Runnable delegate) {
-            this.handler = handler;
+        PostedRunnable(ImmediateHandlerWorker worker, Runnable delegate, boolean counted) {
+            this.worker = worker;
             this.delegate = delegate;
+            this.counted = counted;
         }
 
         @Override
         public void run() {
-            try {
+            if (compareAndSet(false, true)) {
+                worker.onPostedDone(counted);
+                worker.runOnLooper(delegate);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (compareAndSet(false, true)) {
+                worker.onPostedDone(counted);
+                Disposable upstream = this.upstream;
+                if (upstream != null) {
+                    upstream.dispose();
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            Disposable upstream = this.upstream;
+            return upstream != null && upstream.isDisposed();
+        }
+    }
+
+    /** A task waiting on an {@link ImmediateHandlerWorker} trampoline. Disposal is lazy. */
+    private static final class TrampolinedRunnable implements Runnable, Disposable {
+        final Runnable delegate;
+
+        private volatile boolean disposed;
+
+        TrampolinedRunnable(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            if (!disposed) {
                 delegate.run();
-            } catch (Throwable t) {
-                RxJavaPlugins.onError(t);
             }
         }
 
         @Override
         public void dispose() {
-            handler.removeCallbacks(this);
             disposed = true;
         }
 
@@ -137,4 +757,443 @@ final class HandlerScheduler extends Scheduler {
             return disposed;
         }
     }
+
+    /** A task waiting in a {@link CoalescingHandlerWorker} queue. Disposal is lazy. */
+    private static final class QueuedRunnable implements Runnable, Disposable {
+        private final HandlerScheduler scheduler;
+        private final Runnable delegate;
+        private final Throwable origin;
+
+        private volatile boolean disposed;
+
+        QueuedRunnable(HandlerScheduler scheduler, Runnable delegate, Throwable origin) {
+            this.scheduler = scheduler;
+            this.delegate = delegate;
+            this.origin = origin;
+        }
+
+        @Override
+        public void run() {
+            if (!disposed) {
+                scheduler.runTask(delegate, origin);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+
+    /**
+     * Queues the non-delayed tasks of a high priority scheduler and runs them from a message sent
+     * to the front of the looper's queue, ahead of any messages already waiting. The drain message
+     * is only sent when the queue transitions from empty to non-empty.
+     * <p>
+     * A drain runs at most {@link #MAX_PRIORITY_BATCH} tasks. If more remain, it continues from a
+     * message sent to the back of the queue instead, so a steady stream of high priority tasks
+     * cannot starve messages which were queued before it.
+     */
+    private static final class PriorityDrain implements Runnable {
+        private final HandlerScheduler scheduler;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        PriorityDrain(HandlerScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        void offer(Runnable run) {
+            queue.offer(run);
+            if (wip.getAndIncrement() == 0) {
+                post(true);
+            }
+        }
+
+        @SuppressLint("NewApi") // Async will only be true when the API is available to call.
+        private void post(boolean atFront) {
+            Message message = Message.obtain(scheduler.handler, this);
+            if (scheduler.async) {
+                message.setAsynchronous(true);
+            }
+            if (atFront) {
+                scheduler.handler.sendMessageAtFrontOfQueue(message);
+            } else {
+                scheduler.handler.sendMessage(message);
+            }
+        }
+
+        /** Drains the queue on the looper thread. Only ever invoked by the drain message. */
+        @Override
+        public void run() {
+            int count = 0;
+            int missed = 1;
+            for (;;) {
+                for (;;) {
+                    if (count == MAX_PRIORITY_BATCH && !queue.isEmpty()) {
+                        // Yield behind the messages queued so far. The work-in-progress count is
+                        // left non-zero so producers do not post a competing drain message.
+                        post(false);
+                        return;
+                    }
+                    Runnable run = queue.poll();
+                    if (run == null) {
+                        break;
+                    }
+                    count++;
+                    run.run();
+                }
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * A task which runs its delegate periodically by re-posting itself, so that every run reuses
+     * the same instance and only obtains a recycled {@link Message}.
+     * <p>
+     * Each deadline is computed from the previous one rather than from when the task actually ran,
+     * so delivery delays do not accumulate as drift. Once the task falls behind by a whole period
+     * it is re-anchored to the current time instead of running back to back to catch up. A task
+     * which throws is not rescheduled.
+     */
+    private static final class PeriodicRunnable extends AtomicBoolean
+            implements Runnable, Disposable {
+        private final HandlerScheduler scheduler;
+        private final LooperWorker worker; // Null for direct tasks.
+        private final Runnable delegate;
+        private final Throwable origin; // Null unless sampled by the stall detector.
+        private final long periodMillis;
+
+        /** The uptime at which the task is next due. Handed to the looper with each message. */
+        private long deadline;
+
+        PeriodicRunnable(HandlerScheduler scheduler, LooperWorker worker, Runnable delegate,
+                Throwable origin, long periodMillis) {
+            this.scheduler = scheduler;
+            this.worker = worker;
+            this.delegate = delegate;
+            this.origin = origin;
+            this.periodMillis = periodMillis;
+        }
+
+        void start(long initialDelayMillis) {
+            deadline = SystemClock.uptimeMillis() + Math.max(0, initialDelayMillis);
+            if (worker != null) {
+                // Counted as a delayed task for as long as it is active so that disposing the
+                // worker removes its message.
+                worker.onDelayedPosted();
+            }
+            post();
+        }
+
+        private void post() {
+            scheduler.sendAtTime(this, worker /* token */, deadline);
+            // Re-check disposed state for removing in case we were racing a call to dispose().
+            if (get()) {
+                scheduler.removeDelayed(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (get()) {
+                return;
+            }
+            if (worker != null && worker.isDisposed()) {
+                stop();
+                return;
+            }
+            long deadline = this.deadline;
+            if (!scheduler.runTask(measure(deadline), origin)) {
+                stop();
+                return;
+            }
+            if (get()) {
+                return; // Disposed while running.
+            }
+
+            long next = deadline + periodMillis;
+            long now = SystemClock.uptimeMillis();
+            if (next <= now) {
+                next = now + periodMillis;
+            }
+            this.deadline = next;
+            post();
+        }
+
+        /** Wrap the delegate for metrics, treating the deadline of this run as its enqueue time. */
+        private Runnable measure(long deadline) {
+            if (RxAndroidPlugins.getSchedulerMetricsListener() == null) {
+                return delegate;
+            }
+            long lateMillis = SystemClock.uptimeMillis() - deadline;
+            long enqueueNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(lateMillis);
+            return new MeasuredRunnable(scheduler, delegate, enqueueNanos);
+        }
+
+        private boolean stop() {
+            if (compareAndSet(false, true)) {
+                if (worker != null) {
+                    worker.onDelayedDone();
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void dispose() {
+            if (stop()) {
+                scheduler.removeDelayed(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+    }
+
+    /** A task which reports its timing to the {@link SchedulerMetricsListener} once it has run. */
+    private static final class MeasuredRunnable implements Runnable {
+        private final HandlerScheduler scheduler;
+        final Runnable delegate;
+        private final long enqueueNanos;
+
+        MeasuredRunnable(HandlerScheduler scheduler, Runnable delegate, long enqueueNanos) {
+            this.scheduler = scheduler;
+            this.delegate = delegate;
+            this.enqueueNanos = enqueueNanos;
+        }
+
+        @Override
+        public void run() {
+            long dispatchNanos = System.nanoTime();
+            try {
+                delegate.run();
+            } finally {
+                long durationNanos = System.nanoTime() - dispatchNanos;
+                SchedulerMetricsListener listener = RxAndroidPlugins.getSchedulerMetricsListener();
+                if (listener != null) {
+                    try {
+                        listener.onTaskRun(scheduler, scheduler.handler.getLooper(), delegate,
+                            enqueueNanos, dispatchNanos, durationNanos);
+                    } catch (Throwable t) {
+                        RxJavaPlugins.onError(t);
+                    }
+                }
+            }
+        }
+    }
+
+    /** A bounded pool of {@link PooledRunnable}s shared by all workers of a scheduler. */
+    static final class RunnablePool {
+        static final int CAPACITY = 64;
+
+        final HandlerScheduler scheduler;
+        private final PooledRunnable[] items = new PooledRunnable[CAPACITY];
+        private int size;
+
+        RunnablePool(HandlerScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        PooledRunnable acquire(LooperWorker worker, Runnable delegate, Throwable origin) {
+            PooledRunnable runnable = null;
+            synchronized (this) {
+                if (size > 0) {
+                    runnable = items[--size];
+                    items[size] = null;
+                }
+            }
+            if (runnable == null) {
+                runnable = new PooledRunnable(this);
+            }
+            runnable.prepare(worker, delegate, origin);
+            return runnable;
+        }
+
+        void release(PooledRunnable runnable) {
+            synchronized (this) {
+                if (size < CAPACITY) {
+                    items[size++] = runnable;
+                }
+            }
+        }
+    }
+
+    /**
+     * A non-delayed task which returns itself to its {@link RunnablePool} once its message has been
+     * delivered, whether it ran or was disposed first. It is also the task's {@link Disposable}, so
+     * scheduling allocates nothing in steady state.
+     * <p>
+     * The state and a generation counter are packed into a single stamp. Recycling increments the
+     * generation, so a dispose which read the stamp before the instance was recycled fails its
+     * compare-and-set rather than marking the free instance. Once recycled the instance reports
+     * the state of its new task, so a handle must not be disposed after its task has run.
+     * <p>
+     * Disposal only flips the state and leaves the message in the queue, so it never scans the
+     * looper's queue. The message still runs, skips the delegate, and recycles the instance.
+     */
+    static final class PooledRunnable implements Runnable, Disposable {
+        private static final long STATE_MASK = 0b11;
+        private static final long FREE = 0;
+        private static final long PENDING = 1;
+        private static final long RUNNING = 2;
+        private static final long DISPOSED = 3;
+        private static final long GENERATION_UNIT = STATE_MASK + 1;
+
+        private static final AtomicLongFieldUpdater<PooledRunnable> STAMP =
+            AtomicLongFieldUpdater.newUpdater(PooledRunnable.class, "stamp");
+
+        private final RunnablePool pool;
+
+        // Published to the looper thread by the message queue.
+        private LooperWorker worker;
+        private Runnable delegate;
+        private Throwable origin;
+
+        private volatile long stamp;
+
+        PooledRunnable(RunnablePool pool) {
+            this.pool = pool;
+        }
+
+        /** Called by the pool while this instance is exclusively owned by the scheduling thread. */
+        void prepare(LooperWorker worker, Runnable delegate, Throwable origin) {
+            this.worker = worker;
+            this.delegate = delegate;
+            this.origin = origin;
+            stamp = (stamp & ~STATE_MASK) | PENDING;
+        }
+
+        @Override
+        public void run() {
+            long stamp = this.stamp;
+            if ((stamp & STATE_MASK) == PENDING
+                    && STAMP.compareAndSet(this, stamp, (stamp & ~STATE_MASK) | RUNNING)) {
+                if (!worker.isDisposed()) {
+                    pool.scheduler.runTask(delegate, origin);
+                }
+            }
+            worker = null;
+            delegate = null;
+            origin = null;
+            this.stamp = (stamp & ~STATE_MASK) + GENERATION_UNIT; // FREE
+            pool.release(this);
+        }
+
+        @Override
+        public void dispose() {
+            for (;;) {
+                long stamp = this.stamp;
+                if ((stamp & STATE_MASK) != PENDING) {
+                    return; // Running, done, or already disposed.
+                }
+                if (STAMP.compareAndSet(this, stamp, (stamp & ~STATE_MASK) | DISPOSED)) {
+                    return;
+                }
+            }
+        }
+
+        /** True once the task was disposed or its message has been delivered. */
+        @Override
+        public boolean isDisposed() {
+            long state = stamp & STATE_MASK;
+            return state == DISPOSED || state == FREE;
+        }
+    }
+
+    /**
+     * A task posted as its own message. Its lifecycle is tracked atomically so that disposing a task
+     * which is running or has run is a single compare-and-set. Only a delayed task which is still
+     * pending is removed from the looper's queue. A pending non-delayed task is delivered soon
+     * anyway, so it is left in place and skips its delegate rather than scanning the queue. It
+     * drops its delegate as it is disposed so that nothing is retained until then.
+     */
+    private static final class ScheduledRunnable implements Runnable, Disposable {
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int DISPOSED = 3;
+
+        private static final AtomicIntegerFieldUpdater<ScheduledRunnable> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(ScheduledRunnable.class, "state");
+
+        private final HandlerScheduler scheduler;
+        private final LooperWorker worker; // Null for direct tasks.
+        private final boolean delayed;
+
+        // Cleared once disposed while pending, after which they are never read.
+        private Runnable delegate;
+        private Throwable origin; // Null unless sampled by the stall detector.
+
+        private volatile int state; // PENDING
+
+        ScheduledRunnable(HandlerScheduler scheduler, LooperWorker worker, Runnable delegate,
+                Throwable origin, boolean delayed) {
+            this.scheduler = scheduler;
+            this.worker = worker;
+            this.delegate = delegate;
+            this.origin = origin;
+            this.delayed = delayed;
+        }
+
+        @Override
+        public void run() {
+            if (!STATE.compareAndSet(this, PENDING, RUNNING)) {
+                return; // Disposed while waiting.
+            }
+            onNoLongerPending();
+            try {
+                // Disposed workers leave their non-delayed tasks in the queue.
+                if (worker == null || !worker.isDisposed()) {
+                    scheduler.runTask(delegate, origin);
+                }
+            } finally {
+                STATE.compareAndSet(this, RUNNING, DONE); // Fails if disposed while running.
+            }
+        }
+
+        @Override
+        public void dispose() {
+            for (;;) {
+                int state = this.state;
+                if (state == DISPOSED) {
+                    return;
+                }
+                if (STATE.compareAndSet(this, state, DISPOSED)) {
+                    if (state == PENDING) {
+                        onNoLongerPending();
+                        if (delayed) {
+                            scheduler.removeDelayed(this);
+                        }
+                        delegate = null;
+                        origin = null;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void onNoLongerPending() {
+            if (delayed && worker != null) {
+                worker.onDelayedDone();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return state == DISPOSED;
+        }
+    }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+/**
+ * A scheduler which runs tasks from a {@link MessageQueue.IdleHandler} of its looper, once the
+ * looper has no messages which are due. Each idle callback runs at most {@link #MAX_IDLE_BATCH}
+ * tasks so that messages which arrive in the meantime are not held up for long.
+ * <p>
+ * An idle handler is only invoked when the looper goes idle after handling a message, so it is
+ * registered by posting a message to the looper whenever the queue goes from empty to non-empty,
+ * and again after a batch which left tasks behind.
+ * <p>
+ * Delayed tasks wait on the handler and join the idle queue once their delay has elapsed.
+ */
+final class IdleScheduler extends BatchingScheduler implements MessageQueue.IdleHandler {
+    /** How many tasks each idle callback runs before waiting for the looper to go idle again. */
+    static final int MAX_IDLE_BATCH = 8;
+
+    private final Runnable addIdleHandler = new Runnable() {
+        @Override public void run() {
+            Looper.myQueue().addIdleHandler(IdleScheduler.this);
+        }
+    };
+
+    IdleScheduler(Handler handler) {
+        super(handler);
+    }
+
+    @Override
+    void requestBatch() {
+        // Wake the looper so that this handler is invoked the next time it goes idle.
+        handler.post(addIdleHandler);
+    }
+
+    @Override
+    public boolean queueIdle() {
+        runBatch(MAX_IDLE_BATCH);
+        return false;
+    }
+}
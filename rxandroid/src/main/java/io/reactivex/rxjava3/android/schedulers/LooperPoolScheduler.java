@@ -0,0 +1,236 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scheduler backed by a fixed pool of {@link HandlerThread}s. Each worker is bound to the
+ * looper with the fewest pending tasks, breaking ties by the fewest workers, so that workers
+ * created before they receive any tasks are still spread across the pool.
+ */
+final class LooperPoolScheduler extends Scheduler {
+    private static final AtomicInteger POOL_COUNT = new AtomicInteger();
+
+    final Slot[] slots;
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    LooperPoolScheduler(int size, int priority, boolean async, SchedulerOptions options) {
+        int pool = POOL_COUNT.incrementAndGet();
+        slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            HandlerThread thread = new HandlerThread("RxLooperPool-" + pool + "-" + i, priority);
+            thread.start();
+            Handler handler = new Handler(thread.getLooper());
+            slots[i] = new Slot(thread, new HandlerScheduler(handler, async, options));
+        }
+    }
+
+    @Override
+    public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+        if (run == null) throw new NullPointerException("run == null");
+        if (unit == null) throw new NullPointerException("unit == null");
+
+        if (shutdown.get()) {
+            return Disposable.disposed();
+        }
+
+        run = RxJavaPlugins.onSchedule(run);
+        Slot slot = leastLoaded();
+        slot.pending.getAndIncrement();
+        CountedRunnable counted = new CountedRunnable(slot, null, run);
+        counted.upstream = slot.scheduler.scheduleDirectHooked(counted, unit.toMillis(delay));
+        return counted;
+    }
+
+    @Override
+    public Worker createWorker() {
+        Slot slot = leastLoaded();
+        slot.workers.getAndIncrement();
+        return new PoolWorker(this, slot);
+    }
+
+    /**
+     * Quits all of the pool's looper threads. Pending actions are dropped, including those which
+     * are already due, on every API level.
+     */
+    @Override
+    public void shutdown() {
+        if (shutdown.compareAndSet(false, true)) {
+            for (Slot slot : slots) {
+                slot.thread.quit();
+            }
+        }
+    }
+
+    Slot leastLoaded() {
+        Slot best = slots[0];
+        int bestPending = best.pending.get();
+        int bestWorkers = best.workers.get();
+        for (int i = 1; i < slots.length; i++) {
+            Slot slot = slots[i];
+            int pending = slot.pending.get();
+            int workers = slot.workers.get();
+            if (pending < bestPending || (pending == bestPending && workers < bestWorkers)) {
+                best = slot;
+                bestPending = pending;
+                bestWorkers = workers;
+            }
+        }
+        return best;
+    }
+
+    /** One looper thread of the pool along with its load. */
+    static final class Slot {
+        final HandlerThread thread;
+        final HandlerScheduler scheduler;
+        /** Tasks scheduled on this looper which have not yet run or been disposed. */
+        final AtomicInteger pending = new AtomicInteger();
+        /** Workers bound to this looper which have not been disposed. */
+        final AtomicInteger workers = new AtomicInteger();
+
+        Slot(HandlerThread thread, HandlerScheduler scheduler) {
+            this.thread = thread;
+            this.scheduler = scheduler;
+        }
+    }
+
+    private static final class PoolWorker extends Worker {
+        private final LooperPoolScheduler pool;
+        private final Slot slot;
+        private final HandlerScheduler.LooperWorker delegate;
+        /** This worker's share of the slot's pending count, released in bulk on disposal. */
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean disposed = new AtomicBoolean();
+
+        PoolWorker(LooperPoolScheduler pool, Slot slot) {
+            this.pool = pool;
+            this.slot = slot;
+            this.delegate = slot.scheduler.createWorker();
+        }
+
+        @Override
+        public Disposable schedule(Runnable run, long delay, TimeUnit unit) {
+            if (run == null) throw new NullPointerException("run == null");
+            if (unit == null) throw new NullPointerException("unit == null");
+
+            if (disposed.get() || pool.shutdown.get()) {
+                return Disposable.disposed();
+            }
+
+            run = RxJavaPlugins.onSchedule(run);
+            pending.getAndIncrement();
+            slot.pending.getAndIncrement();
+            CountedRunnable counted = new CountedRunnable(slot, this, run);
+            counted.upstream = delegate.scheduleHooked(counted, unit.toMillis(delay));
+
+            // Release the count in case we were racing a call to dispose().
+            if (disposed.get()) {
+                releaseAll();
+                return Disposable.disposed();
+            }
+            return counted;
+        }
+
+        /** Release the count of one task, unless disposal already released it. */
+        void release() {
+            for (;;) {
+                int count = pending.get();
+                if (count == 0) {
+                    return;
+                }
+                if (pending.compareAndSet(count, count - 1)) {
+                    slot.pending.getAndDecrement();
+                    return;
+                }
+            }
+        }
+
+        private void releaseAll() {
+            int count = pending.getAndSet(0);
+            if (count != 0) {
+                slot.pending.addAndGet(-count);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed.compareAndSet(false, true)) {
+                delegate.dispose();
+                releaseAll();
+                slot.workers.getAndDecrement();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed.get();
+        }
+    }
+
+    /** A task which releases its pending count once it runs or is disposed, whichever is first. */
+    static final class CountedRunnable extends AtomicBoolean implements Runnable, Disposable {
+        private final Slot slot;
+        private final PoolWorker worker; // Null for direct tasks.
+        final Runnable delegate;
+
+        volatile Disposable upstream;
+
+        CountedRunnable(Slot slot, PoolWorker worker, Runnable delegate) {
+            this.slot = slot;
+            this.worker = worker;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            if (compareAndSet(false, true)) {
+                release();
+                delegate.run();
+            }
+        }
+
+        private void release() {
+            if (worker != null) {
+                worker.release();
+            } else {
+                slot.pending.getAndDecrement();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (compareAndSet(false, true)) {
+                release();
+            }
+            Disposable upstream = this.upstream;
+            if (upstream != null) {
+                upstream.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            Disposable upstream = this.upstream;
+            return upstream != null && upstream.isDisposed();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Looper;
+
+/**
+ * How urgently a scheduler created by {@link AndroidSchedulers#mainThread(Priority)} or
+ * {@link AndroidSchedulers#from(Looper, SchedulerOptions)} runs its non-delayed tasks relative to
+ * the other messages already waiting in the looper.
+ *
+ * @see SchedulerOptions.Builder#priority(Priority)
+ */
+public enum Priority {
+    /**
+     * Tasks are run ahead of messages which are already queued, such as bulk updates posted from
+     * background threads. This keeps the latency of urgent work, like responding to input, low.
+     */
+    HIGH,
+    /** Tasks are queued behind messages which are already waiting. */
+    NORMAL
+}
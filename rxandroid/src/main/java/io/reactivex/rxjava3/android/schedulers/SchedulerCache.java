@@ -0,0 +1,126 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reuses the schedulers created for a looper and set of options, so that repeatedly calling
+ * {@link AndroidSchedulers#from(Looper)} does not allocate a new handler and scheduler each time.
+ * <p>
+ * Lookups never take a lock or allocate. Schedulers are only weakly held and are created again
+ * once nothing else references them. Each collected scheduler is enqueued on a
+ * {@link ReferenceQueue} and its entry removed on the next miss, along with the entry of its
+ * looper once none of its schedulers are left. A looper which has quit is therefore released as
+ * soon as its schedulers are no longer used, without any of the cached loopers being inspected.
+ */
+final class SchedulerCache {
+    private final ConcurrentMap<Looper, LooperSchedulers> loopers = new ConcurrentHashMap<>();
+    private final ReferenceQueue<HandlerScheduler> collected = new ReferenceQueue<>();
+
+    HandlerScheduler get(Looper looper, SchedulerOptions options) {
+        boolean async = AndroidSchedulers.resolveAsync(options.async);
+
+        LooperSchedulers forLooper = loopers.get(looper);
+        if (forLooper != null) {
+            SchedulerReference reference = forLooper.schedulers.get(options);
+            HandlerScheduler scheduler = reference != null ? reference.get() : null;
+            // The effective async flag depends on the API level which tests may change.
+            if (scheduler != null && scheduler.async == async) {
+                return scheduler;
+            }
+        }
+
+        purge();
+
+        for (;;) {
+            forLooper = loopers.get(looper);
+            if (forLooper == null) {
+                LooperSchedulers created = new LooperSchedulers(looper);
+                forLooper = loopers.putIfAbsent(looper, created);
+                if (forLooper == null) {
+                    forLooper = created;
+                }
+            }
+
+            ConcurrentMap<SchedulerOptions, SchedulerReference> schedulers = forLooper.schedulers;
+            SchedulerReference reference = schedulers.get(options);
+            HandlerScheduler scheduler = reference != null ? reference.get() : null;
+            if (scheduler != null && scheduler.async == async) {
+                return scheduler;
+            }
+
+            scheduler = new HandlerScheduler(forLooper.handler, async, options);
+            SchedulerReference created =
+                new SchedulerReference(scheduler, forLooper, options, collected);
+            boolean stored = reference == null
+                ? schedulers.putIfAbsent(options, created) == null
+                : schedulers.replace(options, reference, created);
+            // Retry if a purge detached the looper's entry meanwhile, leaving this one uncached.
+            if (stored && loopers.get(looper) == forLooper) {
+                return scheduler;
+            }
+        }
+    }
+
+    int size() {
+        purge();
+        int size = 0;
+        for (LooperSchedulers forLooper : loopers.values()) {
+            size += forLooper.schedulers.size();
+        }
+        return size;
+    }
+
+    /** Remove the entries of schedulers which have been collected, and of loopers left empty. */
+    private void purge() {
+        SchedulerReference reference;
+        while ((reference = (SchedulerReference) collected.poll()) != null) {
+            LooperSchedulers forLooper = reference.forLooper;
+            forLooper.schedulers.remove(reference.options, reference);
+            if (forLooper.schedulers.isEmpty()) {
+                loopers.remove(forLooper.handler.getLooper(), forLooper);
+            }
+        }
+    }
+
+    /** The schedulers of one looper, which all share a single handler. */
+    private static final class LooperSchedulers {
+        final Handler handler;
+        final ConcurrentMap<SchedulerOptions, SchedulerReference> schedulers =
+            new ConcurrentHashMap<>();
+
+        LooperSchedulers(Looper looper) {
+            this.handler = new Handler(looper);
+        }
+    }
+
+    /** A cached scheduler, which knows its entry so that it can be removed once collected. */
+    private static final class SchedulerReference extends WeakReference<HandlerScheduler> {
+        final LooperSchedulers forLooper;
+        final SchedulerOptions options;
+
+        SchedulerReference(HandlerScheduler scheduler, LooperSchedulers forLooper,
+                SchedulerOptions options, ReferenceQueue<HandlerScheduler> queue) {
+            super(scheduler, queue);
+            this.forLooper = forLooper;
+            this.options = options;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Looper;
+import android.os.Message;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options which control how a scheduler created by
+ * {@link AndroidSchedulers#from(Looper, SchedulerOptions)} posts work to its looper.
+ * <p>
+ * Instances are immutable. Use {@link #builder()} to create new options or {@link #newBuilder()}
+ * to derive options from existing ones.
+ */
+public final class SchedulerOptions {
+    /** Options matching the behavior of {@link AndroidSchedulers#from(Looper)}. */
+    public static final SchedulerOptions DEFAULT = builder().build();
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    final boolean async;
+    final boolean coalesce;
+    final long drainBudgetNanos;
+    final boolean immediate;
+    final boolean pooled;
+    final Priority priority;
+    final long timerWheelTickMillis;
+
+    SchedulerOptions(Builder builder) {
+        this.async = builder.async;
+        this.coalesce = builder.coalesce;
+        this.drainBudgetNanos = builder.drainBudgetNanos;
+        this.immediate = builder.immediate;
+        this.pooled = builder.pooled;
+        this.priority = builder.priority;
+        this.timerWheelTickMillis = builder.timerWheelTickMillis;
+    }
+
+    /** Whether the scheduler posts asynchronous messages. */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /** Whether workers coalesce non-delayed tasks into a single drain message. */
+    public boolean isCoalescing() {
+        return coalesce;
+    }
+
+    /**
+     * The maximum time in {@code unit} a coalesced drain runs before yielding back to the looper,
+     * or 0 if drains are unbounded.
+     */
+    public long getDrainBudget(TimeUnit unit) {
+        return unit.convert(drainBudgetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Whether non-delayed tasks scheduled from the looper thread run synchronously. */
+    public boolean isImmediate() {
+        return immediate;
+    }
+
+    /** Whether non-delayed worker tasks are recycled through a pool. */
+    public boolean isPooled() {
+        return pooled;
+    }
+
+    /** How non-delayed tasks are ordered relative to messages already waiting in the looper. */
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * The tick of the timer wheel holding delayed tasks in {@code unit}, or 0 if delayed tasks are
+     * posted individually.
+     */
+    public long getTimerWheelTick(TimeUnit unit) {
+        return unit.convert(timerWheelTickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Builder newBuilder() {
+        return new Builder(this);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SchedulerOptions)) return false;
+        SchedulerOptions other = (SchedulerOptions) o;
+        return async == other.async
+            && coalesce == other.coalesce
+            && drainBudgetNanos == other.drainBudgetNanos
+            && immediate == other.immediate
+            && pooled == other.pooled
+            && priority == other.priority
+            && timerWheelTickMillis == other.timerWheelTickMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = async ? 1 : 0;
+        result = 31 * result + (coalesce ? 1 : 0);
+        result = 31 * result + (int) (drainBudgetNanos ^ (drainBudgetNanos >>> 32));
+        result = 31 * result + (immediate ? 1 : 0);
+        result = 31 * result + (pooled ? 1 : 0);
+        result = 31 * result + priority.hashCode();
+        result = 31 * result + (int) (timerWheelTickMillis ^ (timerWheelTickMillis >>> 32));
+        return result;
+    }
+
+    public static final class Builder {
+        boolean async = true;
+        boolean coalesce;
+        long drainBudgetNanos;
+        boolean immediate;
+        boolean pooled;
+        Priority priority = Priority.NORMAL;
+        long timerWheelTickMillis;
+
+        Builder() {
+        }
+
+        Builder(SchedulerOptions options) {
+            this.async = options.async;
+            this.coalesce = options.coalesce;
+            this.drainBudgetNanos = options.drainBudgetNanos;
+            this.immediate = options.immediate;
+            this.pooled = options.pooled;
+            this.priority = options.priority;
+            this.timerWheelTickMillis = options.timerWheelTickMillis;
+        }
+
+        /**
+         * If true, the scheduler will use async messaging on API >= 16 to avoid VSYNC locking.
+         * On API < 16 this value is ignored. Defaults to true.
+         *
+         * @see Message#setAsynchronous(boolean)
+         */
+        public Builder async(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        /**
+         * If true, each worker queues its non-delayed tasks internally and posts a single message
+         * only when its queue goes from empty to non-empty. That message then runs every queued
+         * task in one looper dispatch. Delayed tasks are still posted individually.
+         * <p>
+         * This trades the fairness of interleaving each task with other looper messages for far
+         * fewer message allocations and queue insertions when a worker receives bursts of work,
+         * such as {@code observeOn} with a fast upstream. Defaults to false.
+         */
+        public Builder coalesce(boolean coalesce) {
+            this.coalesce = coalesce;
+            return this;
+        }
+
+        /**
+         * Limit each coalesced drain to at most {@code budget} of running time. Once exceeded, the
+         * drain posts a new message to continue with the remaining tasks and returns, letting
+         * input events and frame callbacks waiting in the looper run in between. A task which is
+         * already running is never interrupted so the budget may be overshot by its duration.
+         * <p>
+         * Requires {@link #coalesce(boolean) coalescing}. A budget of 0 (the default) drains until
+         * the queue is empty.
+         */
+        public Builder drainBudget(long budget, TimeUnit unit) {
+            if (unit == null) throw new NullPointerException("unit == null");
+            if (budget < 0) throw new IllegalArgumentException("budget < 0: " + budget);
+            this.drainBudgetNanos = unit.toNanos(budget);
+            return this;
+        }
+
+        /**
+         * If true, non-delayed tasks scheduled from the looper's own thread run synchronously
+         * instead of being posted, saving a full looper round-trip.
+         * <p>
+         * A worker only runs a task immediately when it has no earlier tasks still waiting in the
+         * looper, so ordering is preserved. Tasks scheduled while one of the worker's tasks is
+         * running are queued and run as soon as it returns rather than re-entering it. Nesting of
+         * immediate tasks is bounded, after which tasks are posted as usual. Defaults to false.
+         */
+        public Builder immediate(boolean immediate) {
+            this.immediate = immediate;
+            return this;
+        }
+
+        /**
+         * If true, the runnables which wrap non-delayed tasks scheduled on a worker are recycled
+         * through a pool once their message has been delivered. Together with the looper's own
+         * {@link Message} pool this leaves nothing to allocate per task in steady state. Disposing a
+         * pooled task only marks it and never searches the looper's message queue. Delayed tasks
+         * and direct scheduling are never pooled.
+         * <p>
+         * The {@link io.reactivex.rxjava3.disposables.Disposable} returned for a pooled task is the
+         * recycled runnable itself, so it must not be disposed once the task has run.
+         * <p>
+         * Cannot be combined with {@link #coalesce(boolean) coalescing} which already avoids the
+         * per-task message. Defaults to false.
+         */
+        public Builder pooled(boolean pooled) {
+            this.pooled = pooled;
+            return this;
+        }
+
+        /**
+         * With {@link Priority#HIGH}, non-delayed tasks are queued internally and drained by a
+         * message posted to the front of the looper's queue, so they run ahead of messages which
+         * are already waiting. To avoid starving those messages, a drain runs a bounded batch of
+         * tasks and then continues from the back of the queue. Delayed tasks are posted as usual
+         * since they are already ordered by the time they are due. Defaults to
+         * {@link Priority#NORMAL}.
+         */
+        public Builder priority(Priority priority) {
+            if (priority == null) throw new NullPointerException("priority == null");
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Hold delayed tasks in a hashed timer wheel with a resolution of {@code tick}, rounded
+         * down to whole milliseconds but at least one, instead of posting a message per task.
+         * <p>
+         * Every delayed message is inserted into the looper's queue in order of its due time, so
+         * with many waiting tasks, as from {@code timeout}, {@code debounce} or {@code interval}
+         * operators, each insertion and every other message's dispatch gets slower. The wheel
+         * adds and removes tasks in constant time and only posts a message for the next tick with
+         * tasks due, keeping the looper's queue short.
+         * <p>
+         * Tasks run at the first tick at or after their delay, so they may run up to one tick
+         * late. Disposing a worker scans the wheel for its tasks. A tick of 0 (the default)
+         * disables the wheel.
+         */
+        public Builder timerWheel(long tick, TimeUnit unit) {
+            if (unit == null) throw new NullPointerException("unit == null");
+            if (tick < 0) throw new IllegalArgumentException("tick < 0: " + tick);
+            this.timerWheelTickMillis = tick == 0 ? 0 : Math.max(1, unit.toMillis(tick));
+            return this;
+        }
+
+        public SchedulerOptions build() {
+            if (drainBudgetNanos > 0 && !coalesce) {
+                throw new IllegalStateException("drainBudget requires coalesce(true)");
+            }
+            if (pooled && coalesce) {
+                throw new IllegalStateException("pooled cannot be combined with coalesce(true)");
+            }
+            return new SchedulerOptions(this);
+        }
+    }
+}
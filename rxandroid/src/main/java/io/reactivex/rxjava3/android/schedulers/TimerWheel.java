@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.annotation.SuppressLint;
+import android.os.Handler;
+import android.os.Message;
+import android.os.SystemClock;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A hashed timer wheel which holds delayed tasks for a looper and posts a single message for the
+ * next tick which has tasks due, instead of one message per task.
+ * <p>
+ * Adding and removing a task takes constant time, while the looper's message queue only ever
+ * holds a few tick messages no matter how many tasks are waiting. The price is resolution: tasks
+ * run at the first tick boundary at or after their delay, never earlier. Tasks due in the same
+ * tick run in the order they were added.
+ * <p>
+ * When a tick has run, the next message is posted for the first non-empty bucket. A bucket may
+ * only hold tasks for later rotations of the wheel, in which case that tick finds nothing due and
+ * moves on, costing at most one wake-up per rotation. Adding a task due before the posted tick
+ * posts another message rather than searching the queue to remove the old one, which then runs
+ * without finding anything to do.
+ * <p>
+ * Timeout nodes are recycled through a free list, and the tasks of a tick are gathered into lists
+ * which are reused for every tick, so that a task which keeps adding itself back, such as a
+ * periodic one, does not allocate once the wheel has warmed up.
+ */
+final class TimerWheel implements Runnable {
+    /** The number of buckets. Must be a power of two. */
+    static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+    /** The most timeout nodes kept for reuse, so that a burst of tasks is not held onto. */
+    private static final int MAX_FREE = 256;
+
+    private final Handler handler;
+    private final boolean async;
+    private final long tickMillis;
+
+    // State below is guarded by this.
+    private final Timeout[] heads = new Timeout[WHEEL_SIZE];
+    private final Timeout[] tails = new Timeout[WHEEL_SIZE];
+    private final Map<Runnable, Timeout> timeouts = new IdentityHashMap<>();
+    /** The last tick which was run. */
+    private long currentTick;
+    /** The earliest tick with a message posted, or {@link Long#MAX_VALUE} if none. */
+    private long postedTick = Long.MAX_VALUE;
+    private long sequence;
+    /** Timeout nodes for reuse, linked through {@link Timeout#next}. */
+    private Timeout free;
+    private int freeCount;
+    /** The timeouts which are due, sorted while expiring. */
+    private final ArrayList<Timeout> dueTimeouts = new ArrayList<>();
+
+    /** The tasks of the tick being run. Only used on the looper, to which tick messages go. */
+    private final ArrayList<Runnable> due = new ArrayList<>();
+
+    /** @param async the effective async flag for the tick messages */
+    TimerWheel(Handler handler, boolean async, long tickMillis) {
+        this.handler = handler;
+        this.async = async;
+        this.tickMillis = tickMillis;
+        this.currentTick = SystemClock.uptimeMillis() / tickMillis;
+    }
+
+    /**
+     * Run {@code run} on the looper once {@code delayMillis} have elapsed.
+     *
+     * @param token used to remove the task with {@link #removeAll(Object)}, or null
+     */
+    synchronized void add(Runnable run, Object token, long delayMillis) {
+        long deadline = SystemClock.uptimeMillis() + delayMillis;
+        // Round up so that tasks never run early.
+        long tick = Math.max((deadline + tickMillis - 1) / tickMillis, currentTick + 1);
+
+        Timeout timeout = obtain(run, token, tick, sequence++);
+        int bucket = (int) (tick & MASK);
+        Timeout tail = tails[bucket];
+        if (tail == null) {
+            heads[bucket] = timeout;
+        } else {
+            tail.next = timeout;
+            timeout.prev = tail;
+        }
+        tails[bucket] = timeout;
+        timeouts.put(run, timeout);
+
+        if (tick < postedTick) {
+            post(tick);
+        }
+    }
+
+    /** Remove {@code run} if it has not run yet. */
+    synchronized void remove(Runnable run) {
+        Timeout timeout = timeouts.remove(run);
+        if (timeout != null) {
+            unlink(timeout);
+            recycle(timeout);
+        }
+    }
+
+    /** Remove all tasks added with {@code token} which have not run yet. Scans every task. */
+    synchronized void removeAll(Object token) {
+        for (int bucket = 0; bucket < WHEEL_SIZE; bucket++) {
+            Timeout timeout = heads[bucket];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.token == token) {
+                    timeouts.remove(timeout.run);
+                    unlink(timeout);
+                    recycle(timeout);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    /** The number of tasks waiting. */
+    synchronized int size() {
+        return timeouts.size();
+    }
+
+    /** Runs the tasks which are due. Only ever invoked by a tick message. */
+    @Override
+    public void run() {
+        expire();
+        try {
+            for (int i = 0, size = due.size(); i < size; i++) {
+                try {
+                    due.get(i).run();
+                } catch (Throwable t) {
+                    RxJavaPlugins.onError(t);
+                }
+            }
+        } finally {
+            due.clear();
+        }
+    }
+
+    /** Move the tasks which are due into {@link #due}, in the order they must run. */
+    private synchronized void expire() {
+        long nowTick = SystemClock.uptimeMillis() / tickMillis;
+        if (postedTick <= nowTick) {
+            postedTick = Long.MAX_VALUE; // This is the earliest message.
+        }
+
+        // Every bucket is visited at most once, as a bucket holds all rotations of its ticks.
+        long ticks = Math.min(nowTick - currentTick, WHEEL_SIZE);
+        for (long tick = currentTick + 1; tick <= currentTick + ticks; tick++) {
+            Timeout timeout = heads[(int) (tick & MASK)];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.tick <= nowTick) {
+                    timeouts.remove(timeout.run);
+                    unlink(timeout);
+                    dueTimeouts.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+        if (nowTick > currentTick) {
+            currentTick = nowTick;
+        }
+        sort(dueTimeouts);
+        for (int i = 0, size = dueTimeouts.size(); i < size; i++) {
+            Timeout timeout = dueTimeouts.get(i);
+            due.add(timeout.run);
+            recycle(timeout);
+        }
+        dueTimeouts.clear();
+
+        if (!timeouts.isEmpty() && postedTick == Long.MAX_VALUE) {
+            for (long tick = currentTick + 1; ; tick++) {
+                if (heads[(int) (tick & MASK)] != null) {
+                    post(tick);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sort in place by insertion, which is cheap as buckets are visited in tick order so the list
+     * is nearly sorted, and unlike {@code Collections.sort} never copies it on older releases.
+     */
+    private static void sort(ArrayList<Timeout> list) {
+        for (int i = 1, size = list.size(); i < size; i++) {
+            Timeout timeout = list.get(i);
+            int j = i - 1;
+            while (j >= 0 && list.get(j).compareTo(timeout) > 0) {
+                list.set(j + 1, list.get(j));
+                j--;
+            }
+            list.set(j + 1, timeout);
+        }
+    }
+
+    private Timeout obtain(Runnable run, Object token, long tick, long sequence) {
+        Timeout timeout = free;
+        if (timeout == null) {
+            return new Timeout(run, token, tick, sequence);
+        }
+        free = timeout.next;
+        freeCount--;
+        timeout.next = null;
+        timeout.set(run, token, tick, sequence);
+        return timeout;
+    }
+
+    /** Keep an unlinked timeout for reuse, dropping its references to the task. */
+    private void recycle(Timeout timeout) {
+        if (freeCount < MAX_FREE) {
+            timeout.set(null, null, 0, 0);
+            timeout.next = free;
+            free = timeout;
+            freeCount++;
+        }
+    }
+
+    @SuppressLint("NewApi") // Async will only be true when the API is available to call.
+    private void post(long tick) {
+        postedTick = tick;
+        Message message = Message.obtain(handler, this);
+        if (async) {
+            message.setAsynchronous(true);
+        }
+        handler.sendMessageAtTime(message, tick * tickMillis);
+    }
+
+    private void unlink(Timeout timeout) {
+        int bucket = (int) (timeout.tick & MASK);
+        Timeout prev = timeout.prev;
+        Timeout next = timeout.next;
+        if (prev == null) {
+            heads[bucket] = next;
+        } else {
+            prev.next = next;
+        }
+        if (next == null) {
+            tails[bucket] = prev;
+        } else {
+            next.prev = prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    private static final class Timeout implements Comparable<Timeout> {
+        // Reassigned only while the node is out of the wheel, under its lock.
+        Runnable run;
+        Object token;
+        long tick;
+        long sequence;
+
+        Timeout prev;
+        Timeout next;
+
+        Timeout(Runnable run, Object token, long tick, long sequence) {
+            set(run, token, tick, sequence);
+        }
+
+        void set(Runnable run, Object token, long tick, long sequence) {
+            this.run = run;
+            this.token = token;
+            this.tick = tick;
+            this.sequence = sequence;
+        }
+
+        /** Order by tick, then by the order the tasks were added. */
+        @Override
+        public int compareTo(Timeout other) {
+            if (tick != other.tick) {
+                return tick < other.tick ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import io.reactivex.rxjava3.subjects.PublishSubject;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static io.reactivex.rxjava3.android.FlowableObserveOnAdaptive.INITIAL_REQUEST;
+import static io.reactivex.rxjava3.android.testutil.PendingMessages.pendingMessages;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runMainLooperOneTask;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class AndroidTransformersTest {
+    private final PublishSubject<Integer> subject = PublishSubject.create();
+
+    @Before
+    public void setUp() {
+        RxAndroidPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxAndroidPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    @Test
+    public void burstIsDeliveredInBatchesFromOneDispatch() {
+        TestObserver<List<Integer>> observer =
+            subject.compose(AndroidTransformers.<Integer>observeOnMain(2)).test();
+        for (int i = 1; i <= 5; i++) {
+            subject.onNext(i);
+        }
+        observer.assertNoValues();
+        assertEquals(1, pendingMessages());
+
+        runMainLooperOneTask();
+        observer.assertValues(asList(1, 2), asList(3, 4), singletonList(5));
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void itemsAfterDrainAreDeliveredInNextDispatch() {
+        TestObserver<List<Integer>> observer =
+            subject.compose(AndroidTransformers.<Integer>observeOnMain(10)).test();
+        subject.onNext(1);
+        runUiThreadTasks();
+        subject.onNext(2);
+        subject.onNext(3);
+        runUiThreadTasks();
+
+        observer.assertValues(singletonList(1), asList(2, 3));
+    }
+
+    @Test
+    public void completionIsDeliveredAfterItems() {
+        TestObserver<List<Integer>> observer =
+            subject.compose(AndroidTransformers.<Integer>observeOnMain(10)).test();
+        subject.onNext(1);
+        subject.onComplete();
+        observer.assertNotComplete();
+
+        runUiThreadTasks();
+        observer.assertResult(singletonList(1));
+    }
+
+    @Test
+    public void errorIsDeliveredAheadOfItems() {
+        TestObserver<List<Integer>> observer =
+            subject.compose(AndroidTransformers.<Integer>observeOnMain(10)).test();
+        RuntimeException error = new RuntimeException();
+        subject.onNext(1);
+        subject.onError(error);
+
+        runUiThreadTasks();
+        observer.assertFailure(RuntimeException.class);
+    }
+
+    @Test
+    public void disposeStopsDelivery() {
+        TestObserver<List<Integer>> observer =
+            subject.compose(AndroidTransformers.<Integer>observeOnMain(10)).test();
+        subject.onNext(1);
+        observer.dispose();
+        assertFalse(subject.hasObservers());
+
+        runUiThreadTasks();
+        observer.assertNoValues();
+    }
+
+    @Test
+    public void observeOnMainUsesMainThreadHook() {
+        RxAndroidPlugins.setMainThreadSchedulerHandler(scheduler -> Schedulers.trampoline());
+        TestObserver<List<Integer>> observer =
+            subject.compose(AndroidTransformers.<Integer>observeOnMain(10)).test();
+        subject.onNext(1);
+        observer.assertValues(singletonList(1));
+    }
+
+    @Test
+    public void latestReplacesPendingItemAndPostsOnce() {
+        TestObserver<Integer> observer =
+            subject.compose(AndroidTransformers.<Integer>observeLatestOnMain()).test();
+        for (int i = 1; i <= 5; i++) {
+            subject.onNext(i);
+        }
+        assertEquals(1, pendingMessages());
+
+        runUiThreadTasks();
+        observer.assertValues(5);
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void latestItemArrivingDuringDeliveryWaitsForNextDispatch() {
+        TestObserver<Integer> observer = subject
+            .compose(AndroidTransformers.<Integer>observeLatestOnMain())
+            .doOnNext(value -> {
+                if (value == 1) {
+                    subject.onNext(2);
+                    subject.onNext(3);
+                }
+            })
+            .test();
+        subject.onNext(1);
+
+        runMainLooperOneTask();
+        observer.assertValues(1);
+        assertEquals(1, pendingMessages());
+
+        runMainLooperOneTask();
+        observer.assertValues(1, 3);
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void latestDeliversLastItemBeforeCompletion() {
+        TestObserver<Integer> observer =
+            subject.compose(AndroidTransformers.<Integer>observeLatestOnMain()).test();
+        subject.onNext(1);
+        subject.onNext(2);
+        subject.onComplete();
+
+        runUiThreadTasks();
+        observer.assertResult(2);
+    }
+
+    @Test
+    public void latestErrorDropsPendingItem() {
+        TestObserver<Integer> observer =
+            subject.compose(AndroidTransformers.<Integer>observeLatestOnMain()).test();
+        subject.onNext(1);
+        subject.onError(new RuntimeException());
+
+        runUiThreadTasks();
+        observer.assertFailure(RuntimeException.class);
+    }
+
+    @Test
+    public void latestDisposeStopsDelivery() {
+        TestObserver<Integer> observer =
+            subject.compose(AndroidTransformers.<Integer>observeLatestOnMain()).test();
+        subject.onNext(1);
+        observer.dispose();
+        assertFalse(subject.hasObservers());
+
+        runUiThreadTasks();
+        observer.assertNoValues();
+    }
+
+    @Test
+    public void throttleToFrameDeliversLatestItemPerFrame() {
+        TestObserver<Integer> observer =
+            subject.compose(AndroidTransformers.<Integer>throttleToFrame()).test();
+        subject.onNext(1);
+        subject.onNext(2);
+        observer.assertNoValues();
+
+        runMainLooperOneTask();
+        observer.assertValues(2);
+
+        subject.onNext(3);
+        subject.onComplete();
+        runMainLooperOneTask();
+        observer.assertResult(2, 3);
+    }
+
+    @Test
+    public void throttleToFrameFlowableRequestsOneItemPerFrame() {
+        List<Long> requests = new ArrayList<>();
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 3)
+            .doOnRequest(requests::add)
+            .compose(AndroidTransformers.<Integer>throttleToFrameFlowable())
+            .test();
+        assertEquals(singletonList(1L), requests);
+        subscriber.assertNoValues();
+
+        runMainLooperOneTask();
+        subscriber.assertValues(1);
+        assertEquals(asList(1L, 1L), requests);
+
+        runMainLooperOneTask();
+        subscriber.assertValues(1, 2);
+
+        runMainLooperOneTask();
+        subscriber.assertResult(1, 2, 3);
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void throttleToFrameFlowableHoldsItemUntilRequested() {
+        TestSubscriber<Integer> subscriber = Flowable.just(1)
+            .compose(AndroidTransformers.<Integer>throttleToFrameFlowable())
+            .test(0);
+
+        runUiThreadTasks();
+        subscriber.assertNoValues();
+
+        subscriber.request(1);
+        runUiThreadTasks();
+        subscriber.assertResult(1);
+    }
+
+    @Test
+    public void throttleToFrameFlowableCancelStopsDelivery() {
+        PublishProcessor<Integer> processor = PublishProcessor.create();
+        TestSubscriber<Integer> subscriber = processor
+            .compose(AndroidTransformers.<Integer>throttleToFrameFlowable())
+            .test();
+        processor.onNext(1);
+        subscriber.cancel();
+        assertFalse(processor.hasSubscribers());
+
+        runUiThreadTasks();
+        subscriber.assertNoValues();
+    }
+
+    private static void drainMainLooper() {
+        while (pendingMessages() > 0) {
+            runMainLooperOneTask();
+        }
+    }
+
+    @Test
+    public void adaptiveRequestsGrowForFastConsumer() {
+        List<Long> requests = new ArrayList<>();
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 1000)
+            .doOnRequest(requests::add)
+            .compose(AndroidTransformers.<Integer>observeOnAdaptive(
+                AndroidSchedulers.mainThread(), 8, MILLISECONDS))
+            .test();
+        assertEquals(singletonList((long) INITIAL_REQUEST), requests);
+
+        drainMainLooper();
+        subscriber.assertValueCount(1000).assertComplete();
+        assertTrue(Collections.max(requests) > INITIAL_REQUEST);
+    }
+
+    @Test
+    public void adaptiveRequestsShrinkAndDrainsYieldForSlowConsumer() {
+        List<Long> requests = new ArrayList<>();
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 30)
+            .doOnRequest(requests::add)
+            .compose(AndroidTransformers.<Integer>observeOnAdaptive(
+                AndroidSchedulers.mainThread(), 5, MILLISECONDS))
+            .doOnNext(value -> Thread.sleep(2))
+            .test();
+
+        runMainLooperOneTask();
+        // The budget ran out after a few items, so the rest are left for another message.
+        assertTrue(subscriber.values().size() < INITIAL_REQUEST);
+        assertEquals(1, pendingMessages());
+
+        drainMainLooper();
+        subscriber.assertValueCount(30).assertComplete();
+        // Each item takes at least 2ms, so at most two fit into the budget.
+        for (long request : requests.subList(1, requests.size())) {
+            assertTrue("Request " + request, request <= 2);
+        }
+    }
+
+    @Test
+    public void adaptiveDrainStartedFromOnSubscribeDoesNotOverRequest() {
+        List<Long> requests = new ArrayList<>();
+        // The trampoline runs the drain inside the downstream's synchronous request.
+        Flowable.<Integer>never()
+            .doOnRequest(requests::add)
+            .compose(AndroidTransformers.<Integer>observeOnAdaptive(
+                Schedulers.trampoline(), 8, MILLISECONDS))
+            .test();
+
+        assertEquals(singletonList((long) INITIAL_REQUEST), requests);
+    }
+
+    @Test
+    public void adaptiveHoldsItemsUntilRequested() {
+        List<Long> requests = new ArrayList<>();
+        TestSubscriber<Integer> subscriber = Flowable.range(1, 100)
+            .doOnRequest(requests::add)
+            .compose(AndroidTransformers.<Integer>observeOnAdaptive(
+                AndroidSchedulers.mainThread(), 8, MILLISECONDS))
+            .test(0);
+
+        drainMainLooper();
+        subscriber.assertNoValues();
+        assertEquals(singletonList((long) INITIAL_REQUEST), requests);
+
+        subscriber.request(100);
+        drainMainLooper();
+        subscriber.assertValueCount(100).assertComplete();
+    }
+
+    @Test
+    public void inputValidation() {
+        try {
+            AndroidTransformers.observeOnMain(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("batchSize <= 0: 0", e.getMessage());
+        }
+        try {
+            AndroidTransformers.observeOnBatched(null, 1);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("scheduler == null", e.getMessage());
+        }
+        try {
+            AndroidTransformers.observeLatestOn(null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("scheduler == null", e.getMessage());
+        }
+        try {
+            AndroidTransformers.observeOnAdaptive(Schedulers.trampoline(), 0, MILLISECONDS);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("budget <= 0: 0", e.getMessage());
+        }
+        try {
+            AndroidTransformers.observeOnAdaptive(Schedulers.trampoline(), 1, null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("unit == null", e.getMessage());
+        }
+    }
+}
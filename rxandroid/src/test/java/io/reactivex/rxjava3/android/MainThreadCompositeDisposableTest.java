@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.disposables.Disposable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class MainThreadCompositeDisposableTest {
+  @Before public void setUp() {
+    ShadowLooper.pauseMainLooper(); // Take manual control of looper task queue.
+  }
+
+  @After public void tearDown() {
+    ShadowLooper.unPauseMainLooper();
+  }
+
+  @Test public void disposeOnMainThreadDisposesAllSync() {
+    MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable();
+    Disposable first = Disposable.empty();
+    Disposable second = Disposable.empty();
+    assertTrue(composite.add(first));
+    assertTrue(composite.add(second));
+    assertEquals(2, composite.size());
+
+    composite.dispose();
+    assertTrue(composite.isDisposed());
+    assertTrue(first.isDisposed());
+    assertTrue(second.isDisposed());
+    assertEquals(0, composite.size());
+  }
+
+  @Test public void addAfterDisposeDisposesResource() {
+    MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable();
+    composite.dispose();
+
+    Disposable disposable = Disposable.empty();
+    assertFalse(composite.add(disposable));
+    assertTrue(disposable.isDisposed());
+  }
+
+  @Test public void growsPastInitialCapacity() {
+    MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable(1);
+    Disposable[] disposables = new Disposable[10];
+    for (int i = 0; i < disposables.length; i++) {
+      disposables[i] = Disposable.empty();
+      composite.add(disposables[i]);
+    }
+    assertEquals(10, composite.size());
+
+    composite.dispose();
+    for (Disposable disposable : disposables) {
+      assertTrue(disposable.isDisposed());
+    }
+  }
+
+  @Test public void removeDisposesAndDeleteDoesNot() {
+    MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable();
+    Disposable removed = Disposable.empty();
+    Disposable deleted = Disposable.empty();
+    Disposable kept = Disposable.empty();
+    composite.add(removed);
+    composite.add(deleted);
+    composite.add(kept);
+
+    assertTrue(composite.remove(removed));
+    assertTrue(removed.isDisposed());
+    assertFalse(composite.remove(removed));
+
+    assertTrue(composite.delete(deleted));
+    assertFalse(deleted.isDisposed());
+    assertFalse(composite.delete(deleted));
+
+    assertEquals(1, composite.size());
+    composite.dispose();
+    assertTrue(kept.isDisposed());
+    assertFalse(deleted.isDisposed());
+  }
+
+  @Test public void clearAndReuseKeepsContainerUsable() {
+    MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable();
+    Disposable first = Disposable.empty();
+    composite.add(first);
+
+    composite.clearAndReuse();
+    assertTrue(first.isDisposed());
+    assertFalse(composite.isDisposed());
+    assertEquals(0, composite.size());
+
+    Disposable second = Disposable.empty();
+    assertTrue(composite.add(second));
+    assertFalse(second.isDisposed());
+    assertEquals(1, composite.size());
+  }
+
+  @Test public void disposeOffMainThreadPostsSingleMessage() throws InterruptedException {
+    final MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable();
+    final AtomicInteger called = new AtomicInteger();
+    for (int i = 0; i < 100; i++) {
+      composite.add(new MainThreadDisposable() {
+        @Override protected void onDispose() {
+          called.incrementAndGet();
+        }
+      });
+    }
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    new Thread(new Runnable() {
+      @Override public void run() {
+        composite.dispose();
+        latch.countDown();
+      }
+    }).start();
+    assertTrue(latch.await(1, SECONDS));
+    assertTrue(composite.isDisposed());
+    assertEquals(0, called.get()); // Callbacks have not yet run.
+    assertEquals(1, shadowOf(Looper.getMainLooper()).getScheduler().size());
+
+    ShadowLooper.runMainLooperOneTask();
+    assertEquals(100, called.get());
+    assertEquals(0, shadowOf(Looper.getMainLooper()).getScheduler().size());
+  }
+
+  @Test public void mutationOffMainThreadThrows() throws InterruptedException {
+    final MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable();
+    final CountDownLatch latch = new CountDownLatch(1);
+    new Thread(new Runnable() {
+      @Override public void run() {
+        try {
+          composite.add(Disposable.empty());
+          fail();
+        } catch (IllegalStateException e) {
+          assertTrue(e.getMessage().startsWith("Expected to be called on the main thread"));
+          latch.countDown();
+        }
+      }
+    }).start();
+
+    assertTrue(latch.await(1, SECONDS));
+  }
+
+  @Test public void inputValidation() {
+    try {
+      new MainThreadCompositeDisposable(0);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals("capacity <= 0: 0", e.getMessage());
+    }
+    MainThreadCompositeDisposable composite = new MainThreadCompositeDisposable();
+    try {
+      composite.add(null);
+      fail();
+    } catch (NullPointerException e) {
+      assertEquals("disposable == null", e.getMessage());
+    }
+    try {
+      composite.delete(null);
+      fail();
+    } catch (NullPointerException e) {
+      assertEquals("disposable == null", e.getMessage());
+    }
+  }
+}
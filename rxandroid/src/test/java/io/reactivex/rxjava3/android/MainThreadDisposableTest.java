@@ -13,8 +13,22 @@
  */
 package io.reactivex.rxjava3.android;
 
+import android.os.Looper;
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.testutil.EmptyScheduler;
+import io.reactivex.rxjava3.core.Scheduler;
 import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
@@ -28,6 +42,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(manifest=Config.NONE)
@@ -106,6 +121,101 @@ public final class MainThreadDisposableTest {
     assertTrue(called.get());
   }
 
+  @Test public void onUnsubscribeOffMainThreadSharesSinglePost() throws InterruptedException {
+    ShadowLooper.pauseMainLooper();
+
+    final AtomicInteger called = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(1);
+    new Thread(new Runnable() {
+      @Override public void run() {
+        for (int i = 0; i < 100; i++) {
+          new MainThreadDisposable() {
+            @Override protected void onDispose() {
+              called.incrementAndGet();
+            }
+          }.dispose();
+        }
+        latch.countDown();
+      }
+    }).start();
+
+    assertTrue(latch.await(1, SECONDS));
+    assertEquals(0, called.get()); // Callbacks have not yet run.
+    assertEquals(1, shadowOf(Looper.getMainLooper()).getScheduler().size());
+
+    ShadowLooper.runMainLooperOneTask();
+    assertEquals(100, called.get());
+    assertEquals(0, shadowOf(Looper.getMainLooper()).getScheduler().size());
+  }
+
+  @Test public void failedPostDoesNotStrandLaterDisposals() throws InterruptedException {
+    ShadowLooper.pauseMainLooper();
+    final List<Throwable> errors = new CopyOnWriteArrayList<>();
+    RxJavaPlugins.setErrorHandler(errors::add);
+    try {
+      final AtomicInteger called = new AtomicInteger();
+      RxAndroidPlugins.setMainThreadSchedulerHandler(scheduler -> new EmptyScheduler());
+      disposeOffMainThread(new CountingDisposable(called));
+      assertEquals(1, errors.size());
+      assertTrue(errors.get(0) instanceof UnsupportedOperationException);
+
+      RxAndroidPlugins.reset();
+      disposeOffMainThread(new CountingDisposable(called));
+      ShadowLooper.runMainLooperOneTask();
+      assertEquals(2, called.get());
+    } finally {
+      RxAndroidPlugins.reset();
+      RxJavaPlugins.reset();
+    }
+  }
+
+  @Test public void cancelledPostDoesNotStrandLaterDisposals() throws InterruptedException {
+    ShadowLooper.pauseMainLooper();
+    try {
+      final AtomicInteger called = new AtomicInteger();
+      // A post which comes back already disposed stands in for a drain which never runs.
+      RxAndroidPlugins.setMainThreadSchedulerHandler(scheduler -> new Scheduler() {
+        @Override public Disposable scheduleDirect(Runnable run, long delay, TimeUnit unit) {
+          return Disposable.disposed();
+        }
+
+        @Override public Worker createWorker() {
+          throw new UnsupportedOperationException();
+        }
+      });
+      disposeOffMainThread(new CountingDisposable(called));
+
+      RxAndroidPlugins.reset();
+      disposeOffMainThread(new CountingDisposable(called));
+      ShadowLooper.runMainLooperOneTask();
+      assertEquals(2, called.get());
+    } finally {
+      RxAndroidPlugins.reset();
+    }
+  }
+
+  @Test public void hookWrappingMainThreadSchedulerStillSharesSinglePost()
+      throws InterruptedException {
+    ShadowLooper.pauseMainLooper();
+    try {
+      final AtomicInteger called = new AtomicInteger();
+      // A hook which returns a new wrapper each time must not cause a post per disposal.
+      RxAndroidPlugins.setMainThreadSchedulerHandler(scheduler -> new Scheduler() {
+        @Override public Worker createWorker() {
+          return scheduler.createWorker();
+        }
+      });
+      disposeOffMainThread(new CountingDisposable(called));
+      disposeOffMainThread(new CountingDisposable(called));
+      assertEquals(1, shadowOf(Looper.getMainLooper()).getScheduler().size());
+
+      ShadowLooper.runMainLooperOneTask();
+      assertEquals(2, called.get());
+    } finally {
+      RxAndroidPlugins.reset();
+    }
+  }
+
   @Test
   public void disposedState() {
     MainThreadDisposable disposable = new MainThreadDisposable() {
@@ -116,4 +226,88 @@ public final class MainThreadDisposableTest {
     disposable.dispose();
     assertTrue(disposable.isDisposed());
   }
+
+  @Test public void disposedOffMainThreadIsPendingUntilActionRuns() throws InterruptedException {
+    ShadowLooper.pauseMainLooper();
+
+    AtomicInteger called = new AtomicInteger();
+    MainThreadDisposable disposable = new CountingDisposable(called);
+    disposeOffMainThread(disposable);
+    assertTrue(disposable.isDisposed());
+    assertEquals(0, called.get());
+
+    // Disposing again on the main thread leaves the action to the posted drain.
+    disposable.dispose();
+    assertEquals(0, called.get());
+
+    ShadowLooper.runMainLooperOneTask();
+    assertTrue(disposable.isDisposed());
+    assertEquals(1, called.get());
+
+    disposable.dispose();
+    assertEquals(1, called.get());
+  }
+
+  @Test public void instanceIsSingleObject() throws IllegalAccessException {
+    // Count the objects reachable from an instance through its own fields. A subclass without
+    // fields of its own should not allocate anything beyond itself.
+    MainThreadDisposable disposable = new EmptyMainThreadDisposable();
+    assertEquals(1, reachableObjects(disposable));
+    disposable.dispose();
+    assertEquals(1, reachableObjects(disposable));
+  }
+
+  private static int reachableObjects(Object root) throws IllegalAccessException {
+    Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+    ArrayDeque<Object> queue = new ArrayDeque<>();
+    queue.add(root);
+    while (!queue.isEmpty()) {
+      Object object = queue.poll();
+      if (!seen.add(object)) {
+        continue;
+      }
+      for (Class<?> type = object.getClass(); type != null; type = type.getSuperclass()) {
+        for (Field field : type.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) {
+            continue;
+          }
+          field.setAccessible(true);
+          Object value = field.get(object);
+          if (value != null) {
+            queue.add(value);
+          }
+        }
+      }
+    }
+    return seen.size();
+  }
+
+  private static final class EmptyMainThreadDisposable extends MainThreadDisposable {
+    @Override protected void onDispose() {
+    }
+  }
+
+  private static void disposeOffMainThread(final Disposable disposable)
+      throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(1);
+    new Thread(new Runnable() {
+      @Override public void run() {
+        disposable.dispose();
+        latch.countDown();
+      }
+    }).start();
+    assertTrue(latch.await(1, SECONDS));
+  }
+
+  private static final class CountingDisposable extends MainThreadDisposable {
+    private final AtomicInteger called;
+
+    CountingDisposable(AtomicInteger called) {
+      this.called = called;
+    }
+
+    @Override protected void onDispose() {
+      called.incrementAndGet();
+    }
+  }
 }
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android;
+
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class MainThreadTest {
+  @After public void tearDown() {
+    RxAndroidPlugins.reset();
+  }
+
+  @Test public void trueOnMainThread() {
+    // Robolectric tests run on its main thread.
+    assertTrue(MainThread.isMainThread());
+    assertTrue(MainThread.isMainThread());
+  }
+
+  @Test public void falseOffMainThread() throws InterruptedException {
+    assertTrue(MainThread.isMainThread()); // Remember the main thread first.
+
+    final AtomicBoolean onMainThread = new AtomicBoolean(true);
+    final CountDownLatch latch = new CountDownLatch(1);
+    new Thread(new Runnable() {
+      @Override public void run() {
+        onMainThread.set(MainThread.isMainThread());
+        latch.countDown();
+      }
+    }).start();
+
+    assertTrue(latch.await(1, SECONDS));
+    assertFalse(onMainThread.get());
+  }
+
+  @Test public void pluginResetForgetsMainThread() {
+    Thread testThread = Thread.currentThread();
+    assertTrue(MainThread.isMainThread());
+
+    RuntimeEnvironment.setMainThread(new Thread());
+    try {
+      RxAndroidPlugins.reset();
+      assertFalse(MainThread.isMainThread());
+    } finally {
+      RuntimeEnvironment.setMainThread(testThread);
+    }
+  }
+}
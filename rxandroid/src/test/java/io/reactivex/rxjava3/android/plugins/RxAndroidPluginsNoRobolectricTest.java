@@ -1,6 +1,7 @@
 package io.reactivex.rxjava3.android.plugins;
 
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
+import io.reactivex.rxjava3.android.schedulers.Priority;
 import io.reactivex.rxjava3.android.testutil.EmptyScheduler;
 import org.junit.After;
 import org.junit.Before;
@@ -19,4 +20,17 @@ public final class RxAndroidPluginsNoRobolectricTest {
         RxAndroidPlugins.setMainThreadSchedulerHandler(scheduler -> emptyScheduler);
         assertSame(emptyScheduler, AndroidSchedulers.mainThread());
     }
+
+    @Test public void mainThreadVariantsCanBeReplacedWithoutLooper() {
+        EmptyScheduler emptyScheduler = new EmptyScheduler();
+        // The init hooks are never asked to call the default, which would need the main looper.
+        RxAndroidPlugins.setInitMainThreadSchedulerHandler(scheduler -> emptyScheduler);
+        RxAndroidPlugins.setInitFrameSchedulerHandler(scheduler -> emptyScheduler);
+        RxAndroidPlugins.setInitMainThreadIdleSchedulerHandler(scheduler -> emptyScheduler);
+
+        assertSame(emptyScheduler, AndroidSchedulers.mainThread(Priority.HIGH));
+        assertSame(emptyScheduler, AndroidSchedulers.mainThreadImmediate());
+        assertSame(emptyScheduler, AndroidSchedulers.frame());
+        assertSame(emptyScheduler, AndroidSchedulers.mainThreadIdle());
+    }
 }
@@ -13,6 +13,8 @@
  */
 package io.reactivex.rxjava3.android.plugins;
 
+import android.os.Looper;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -194,4 +196,94 @@ public final class RxAndroidPluginsTest {
         RxAndroidPlugins.reset();
         assertNull(RxAndroidPlugins.getOnMainThreadSchedulerHandler());
     }
+
+    @Test
+    public void frameHandlerCalled() {
+        final AtomicReference<Scheduler> schedulerRef = new AtomicReference<>();
+        final Scheduler newScheduler = new EmptyScheduler();
+        RxAndroidPlugins.setFrameSchedulerHandler(new Function<Scheduler, Scheduler>() {
+            @Override public Scheduler apply(Scheduler scheduler) {
+                schedulerRef.set(scheduler);
+                return newScheduler;
+            }
+        });
+
+        Scheduler scheduler = new EmptyScheduler();
+        Scheduler actual = RxAndroidPlugins.onFrameScheduler(scheduler);
+        assertSame(newScheduler, actual);
+        assertSame(scheduler, schedulerRef.get());
+    }
+
+    @Test
+    public void resetClearsFrameHandler() {
+        RxAndroidPlugins.setFrameSchedulerHandler(new Function<Scheduler, Scheduler>() {
+            @Override public Scheduler apply(Scheduler scheduler) {
+                throw new AssertionError();
+            }
+        });
+        RxAndroidPlugins.reset();
+        assertNull(RxAndroidPlugins.getOnFrameSchedulerHandler());
+
+        Scheduler scheduler = new EmptyScheduler();
+        assertSame(scheduler, RxAndroidPlugins.onFrameScheduler(scheduler));
+    }
+
+    @Test
+    public void mainThreadIdleHandlerCalled() {
+        final AtomicReference<Scheduler> schedulerRef = new AtomicReference<>();
+        final Scheduler newScheduler = new EmptyScheduler();
+        RxAndroidPlugins.setMainThreadIdleSchedulerHandler(new Function<Scheduler, Scheduler>() {
+            @Override public Scheduler apply(Scheduler scheduler) {
+                schedulerRef.set(scheduler);
+                return newScheduler;
+            }
+        });
+
+        Scheduler scheduler = new EmptyScheduler();
+        Scheduler actual = RxAndroidPlugins.onMainThreadIdleScheduler(scheduler);
+        assertSame(newScheduler, actual);
+        assertSame(scheduler, schedulerRef.get());
+    }
+
+    @Test
+    public void resetClearsMainThreadIdleHandler() {
+        RxAndroidPlugins.setMainThreadIdleSchedulerHandler(new Function<Scheduler, Scheduler>() {
+            @Override public Scheduler apply(Scheduler scheduler) {
+                throw new AssertionError();
+            }
+        });
+        RxAndroidPlugins.reset();
+        assertNull(RxAndroidPlugins.getOnMainThreadIdleSchedulerHandler());
+
+        Scheduler scheduler = new EmptyScheduler();
+        assertSame(scheduler, RxAndroidPlugins.onMainThreadIdleScheduler(scheduler));
+    }
+
+    @Test
+    public void resetClearsSchedulerMetricsListener() {
+        SchedulerMetricsListener listener = new SchedulerMetricsListener() {
+            @Override public void onTaskRun(Scheduler scheduler, Looper looper,
+                    Runnable task, long enqueueNanos, long dispatchNanos, long durationNanos) {
+            }
+        };
+        RxAndroidPlugins.setSchedulerMetricsListener(listener);
+        assertSame(listener, RxAndroidPlugins.getSchedulerMetricsListener());
+
+        RxAndroidPlugins.reset();
+        assertNull(RxAndroidPlugins.getSchedulerMetricsListener());
+    }
+
+    @Test
+    public void resetClearsSchedulerHopListener() {
+        SchedulerHopListener listener = new SchedulerHopListener() {
+            @Override public void onTaskScheduled(Scheduler scheduler, Looper looper,
+                    boolean hopAvoided) {
+            }
+        };
+        RxAndroidPlugins.setSchedulerHopListener(listener);
+        assertSame(listener, RxAndroidPlugins.getSchedulerHopListener());
+
+        RxAndroidPlugins.reset();
+        assertNull(RxAndroidPlugins.getSchedulerHopListener());
+    }
 }
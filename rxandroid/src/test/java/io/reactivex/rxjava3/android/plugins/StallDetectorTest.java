@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.plugins;
+
+import android.os.Looper;
+import io.reactivex.rxjava3.core.Scheduler;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class StallDetectorTest {
+    private static final StallDetector.Listener LISTENER = new StallDetector.Listener() {
+        @Override public void onStall(Scheduler scheduler, Looper looper, Runnable task,
+                long durationNanos, Throwable origin) {
+        }
+    };
+
+    @Test
+    public void defaults() {
+        StallDetector detector = StallDetector.builder(LISTENER).build();
+        assertEquals(100, detector.getThreshold(MILLISECONDS));
+        assertEquals(100, detector.getOriginSampleRate());
+    }
+
+    @Test
+    public void isStallComparesAgainstThreshold() {
+        StallDetector detector = StallDetector.builder(LISTENER).threshold(5, MILLISECONDS).build();
+        assertFalse(detector.isStall(MILLISECONDS.toNanos(5) - 1));
+        assertTrue(detector.isStall(MILLISECONDS.toNanos(5)));
+    }
+
+    @Test
+    public void sampleOriginCapturesOneInRate() {
+        StallDetector detector = StallDetector.builder(LISTENER).originSampleRate(3).build();
+        assertNotNull(detector.sampleOrigin());
+        assertNull(detector.sampleOrigin());
+        assertNull(detector.sampleOrigin());
+        assertNotNull(detector.sampleOrigin());
+    }
+
+    @Test
+    public void sampleOriginCountsPerThread() throws InterruptedException {
+        final StallDetector detector = StallDetector.builder(LISTENER).originSampleRate(3).build();
+        assertNotNull(detector.sampleOrigin());
+        assertNull(detector.sampleOrigin());
+
+        // Another thread's first task is sampled no matter how many this thread scheduled.
+        final AtomicReference<Throwable> otherOrigin = new AtomicReference<>();
+        Thread other = new Thread(new Runnable() {
+            @Override public void run() {
+                otherOrigin.set(detector.sampleOrigin());
+            }
+        });
+        other.start();
+        other.join(5000);
+        assertNotNull(otherOrigin.get());
+
+        assertNull(detector.sampleOrigin());
+        assertNotNull(detector.sampleOrigin());
+    }
+
+    @Test
+    public void sampleRateZeroNeverCaptures() {
+        StallDetector detector = StallDetector.builder(LISTENER).originSampleRate(0).build();
+        for (int i = 0; i < 10; i++) {
+            assertNull(detector.sampleOrigin());
+        }
+    }
+
+    @Test
+    public void inputValidation() {
+        try {
+            StallDetector.builder(null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("listener == null", e.getMessage());
+        }
+        try {
+            StallDetector.builder(LISTENER).threshold(0, MILLISECONDS);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("threshold <= 0: 0", e.getMessage());
+        }
+        try {
+            StallDetector.builder(LISTENER).threshold(1, null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("unit == null", e.getMessage());
+        }
+        try {
+            StallDetector.builder(LISTENER).originSampleRate(-1);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("rate < 0: -1", e.getMessage());
+        }
+    }
+}
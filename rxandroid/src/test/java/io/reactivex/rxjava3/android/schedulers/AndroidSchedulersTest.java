@@ -36,6 +36,7 @@ import org.robolectric.util.ReflectionHelpers;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -68,6 +69,66 @@ public final class AndroidSchedulersTest {
         assertEquals(2, called.get());
     }
 
+    @Test
+    public void mainThreadPriorityCallsThroughToHook() {
+        final Scheduler newScheduler = new EmptyScheduler();
+        RxAndroidPlugins.setMainThreadSchedulerHandler(new Function<Scheduler, Scheduler>() {
+            @Override public Scheduler apply(Scheduler scheduler) {
+                return newScheduler;
+            }
+        });
+
+        assertSame(newScheduler, AndroidSchedulers.mainThread(Priority.HIGH));
+        assertSame(newScheduler, AndroidSchedulers.mainThread(Priority.NORMAL));
+    }
+
+    @Test
+    public void mainThreadPriority() {
+        assertSame(AndroidSchedulers.mainThread(), AndroidSchedulers.mainThread(Priority.NORMAL));
+        assertNotSame(AndroidSchedulers.mainThread(), AndroidSchedulers.mainThread(Priority.HIGH));
+        assertSame(AndroidSchedulers.mainThread(Priority.HIGH),
+            AndroidSchedulers.mainThread(Priority.HIGH));
+    }
+
+    @Test
+    public void mainThreadImmediateCallsThroughToHook() {
+        final Scheduler newScheduler = new EmptyScheduler();
+        RxAndroidPlugins.setMainThreadSchedulerHandler(new Function<Scheduler, Scheduler>() {
+            @Override public Scheduler apply(Scheduler scheduler) {
+                return newScheduler;
+            }
+        });
+
+        assertSame(newScheduler, AndroidSchedulers.mainThreadImmediate());
+    }
+
+    @Test
+    public void mainThreadImmediateRunsSynchronouslyOnMainThread() {
+        ShadowLooper.pauseMainLooper();
+        try {
+            assertNotSame(AndroidSchedulers.mainThread(), AndroidSchedulers.mainThreadImmediate());
+            assertSame(AndroidSchedulers.mainThreadImmediate(),
+                AndroidSchedulers.mainThreadImmediate());
+
+            AtomicInteger called = new AtomicInteger();
+            AndroidSchedulers.mainThreadImmediate().scheduleDirect(called::incrementAndGet);
+            assertEquals(1, called.get());
+            assertEquals(0, shadowOf(Looper.getMainLooper()).getScheduler().size());
+        } finally {
+            ShadowLooper.unPauseMainLooper();
+        }
+    }
+
+    @Test
+    public void mainThreadNullPriorityThrows() {
+        try {
+            AndroidSchedulers.mainThread(null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("priority == null", e.getMessage());
+        }
+    }
+
     @Test
     public void fromNullThrows() {
         try {
@@ -93,6 +154,20 @@ public final class AndroidSchedulersTest {
         assertNotNull(AndroidSchedulers.from(Looper.getMainLooper()));
     }
 
+    @Test
+    public void fromReturnsSameSchedulerForSameLooperAndOptions() {
+        Looper looper = Looper.getMainLooper();
+        assertSame(AndroidSchedulers.from(looper), AndroidSchedulers.from(looper));
+        assertSame(AndroidSchedulers.from(looper, false), AndroidSchedulers.from(looper, false));
+        assertSame(AndroidSchedulers.from(looper),
+            AndroidSchedulers.from(looper, SchedulerOptions.DEFAULT));
+        assertSame(
+            AndroidSchedulers.from(looper, SchedulerOptions.builder().coalesce(true).build()),
+            AndroidSchedulers.from(looper, SchedulerOptions.builder().coalesce(true).build()));
+
+        assertNotSame(AndroidSchedulers.from(looper, true), AndroidSchedulers.from(looper, false));
+    }
+
     @Test
     public void mainThreadAsyncMessagesByDefault() {
         ShadowLooper mainLooper = shadowOf(Looper.getMainLooper());
@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.android.testutil.EmptyScheduler;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.shadows.ShadowLooper.idleMainLooper;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runMainLooperOneTask;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasksIncludingDelayedTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class ChoreographerSchedulerTest {
+    private final Scheduler scheduler =
+        new ChoreographerScheduler(new Handler(Looper.getMainLooper()));
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    @Test
+    public void tasksRunTogetherInNextFrame() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(counter);
+        scheduler.scheduleDirect(counter);
+        assertEquals(0, counter.get());
+
+        runMainLooperOneTask();
+        assertEquals(3, counter.get());
+    }
+
+    @Test
+    public void taskScheduledDuringFrameRunsInFollowingFrame() {
+        final Worker worker = scheduler.createWorker();
+
+        final CountingRunnable counter = new CountingRunnable();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                worker.schedule(counter);
+            }
+        });
+
+        runMainLooperOneTask();
+        assertEquals(0, counter.get());
+
+        runMainLooperOneTask();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void offMainThreadScheduleRunsInFrame() throws InterruptedException {
+        final CountingRunnable counter = new CountingRunnable();
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override public void run() {
+                scheduler.scheduleDirect(counter);
+                latch.countDown();
+            }
+        }).start();
+        assertTrue(latch.await(1, SECONDS));
+
+        runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void delayedTaskRunsInFrameAfterDelay() {
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.createWorker().schedule(counter, 1, MINUTES);
+
+        idleMainLooper(30, SECONDS);
+        runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void disposedTaskDoesNotRun() {
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = scheduler.scheduleDirect(counter);
+        Disposable delayed = scheduler.scheduleDirect(counter, 1, MINUTES);
+        disposable.dispose();
+        delayed.dispose();
+        assertTrue(disposable.isDisposed());
+
+        runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void workerDisposeCancelsQueuedAndDelayed() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(counter, 1, MINUTES);
+        worker.dispose();
+        assertTrue(worker.isDisposed());
+        assertTrue(worker.schedule(counter).isDisposed());
+
+        runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void throwingTaskRoutedToRxJavaPlugins() {
+        final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        RxJavaPlugins.setErrorHandler(throwableRef::set);
+
+        final NullPointerException npe = new NullPointerException();
+        scheduler.scheduleDirect(new Runnable() {
+            @Override public void run() {
+                throw npe;
+            }
+        });
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.scheduleDirect(counter);
+
+        runMainLooperOneTask();
+        assertSame(npe, throwableRef.get());
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void frameCallsThroughToHook() {
+        final Scheduler newScheduler = new EmptyScheduler();
+        RxAndroidPlugins.setFrameSchedulerHandler(scheduler -> newScheduler);
+        assertSame(newScheduler, AndroidSchedulers.frame());
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static io.reactivex.rxjava3.android.testutil.PendingMessages.pendingMessages;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.shadows.ShadowLooper.idleMainLooper;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runMainLooperOneTask;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class CoalescingHandlerSchedulerTest {
+    private final Scheduler scheduler = new HandlerScheduler(new Handler(Looper.getMainLooper()), true,
+        SchedulerOptions.builder().coalesce(true).build());
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    @Test
+    public void burstPostsSingleMessage() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        for (int i = 0; i < 100; i++) {
+            worker.schedule(counter);
+        }
+        assertEquals(1, pendingMessages());
+
+        runMainLooperOneTask();
+        assertEquals(100, counter.get());
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void tasksRunInOrder() {
+        Worker worker = scheduler.createWorker();
+
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final int value = i;
+            worker.schedule(new Runnable() {
+                @Override public void run() {
+                    order.add(value);
+                }
+            });
+        }
+
+        runUiThreadTasks();
+        assertEquals(asList(0, 1, 2), order);
+    }
+
+    @Test
+    public void taskScheduledDuringDrainRunsInSameDispatch() {
+        final Worker worker = scheduler.createWorker();
+
+        final CountingRunnable counter = new CountingRunnable();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                worker.schedule(counter);
+            }
+        });
+
+        runMainLooperOneTask();
+        assertEquals(1, counter.get());
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void drainPostsAgainAfterQueueEmptied() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        runMainLooperOneTask();
+        assertEquals(1, counter.get());
+
+        worker.schedule(counter);
+        assertEquals(1, pendingMessages());
+        runMainLooperOneTask();
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void workersPostSeparately() {
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.createWorker().schedule(counter);
+        scheduler.createWorker().schedule(counter);
+        assertEquals(2, pendingMessages());
+    }
+
+    @Test
+    public void disposedTaskDoesNotRun() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counterA = new CountingRunnable();
+        CountingRunnable counterB = new CountingRunnable();
+        Disposable disposable = worker.schedule(counterA);
+        worker.schedule(counterB);
+        disposable.dispose();
+        assertTrue(disposable.isDisposed());
+
+        runUiThreadTasks();
+        assertEquals(0, counterA.get());
+        assertEquals(1, counterB.get());
+    }
+
+    @Test
+    public void workerDisposeCancelsQueuedAndDelayed() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(counter, 1, MINUTES);
+        worker.dispose();
+
+        idleMainLooper(1, MINUTES);
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void disposedWorkerReturnsDisposedDisposables() {
+        Worker worker = scheduler.createWorker();
+        worker.dispose();
+
+        assertTrue(worker.isDisposed());
+        assertTrue(worker.schedule(new CountingRunnable()).isDisposed());
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void delayedTaskPostsWithDelay() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = worker.schedule(counter, 1, MINUTES);
+        assertFalse(disposable.isDisposed());
+
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+
+        idleMainLooper(1, MINUTES);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void throwingTaskRoutedToRxJavaPluginsAndDrainContinues() {
+        final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        RxJavaPlugins.setErrorHandler(throwableRef::set);
+
+        Worker worker = scheduler.createWorker();
+        final NullPointerException npe = new NullPointerException();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                throw npe;
+            }
+        });
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+
+        runMainLooperOneTask();
+        assertSame(npe, throwableRef.get());
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void drainBudgetYieldsToLooper() {
+        Scheduler budgeted = new HandlerScheduler(new Handler(Looper.getMainLooper()), true,
+            SchedulerOptions.builder().coalesce(true).drainBudget(1, MILLISECONDS).build());
+        Worker worker = budgeted.createWorker();
+
+        final CountingRunnable counter = new CountingRunnable();
+        Runnable slow = new Runnable() {
+            @Override public void run() {
+                counter.run();
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        };
+        worker.schedule(slow);
+        worker.schedule(slow);
+        worker.schedule(slow);
+        assertEquals(1, pendingMessages());
+
+        runMainLooperOneTask();
+        assertEquals(1, counter.get());
+        assertEquals(1, pendingMessages());
+
+        // New work while a yielded drain is pending must not post a second message.
+        worker.schedule(slow);
+        assertEquals(1, pendingMessages());
+
+        runUiThreadTasks();
+        assertEquals(4, counter.get());
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void drainBudgetNotExceededRunsWholeBatch() {
+        Scheduler budgeted = new HandlerScheduler(new Handler(Looper.getMainLooper()), true,
+            SchedulerOptions.builder().coalesce(true).drainBudget(1, MINUTES).build());
+        Worker worker = budgeted.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        for (int i = 0; i < 100; i++) {
+            worker.schedule(counter);
+        }
+
+        runMainLooperOneTask();
+        assertEquals(100, counter.get());
+        assertEquals(0, pendingMessages());
+    }
+}
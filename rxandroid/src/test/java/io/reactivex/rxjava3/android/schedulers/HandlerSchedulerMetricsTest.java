@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.plugins.SchedulerMetricsListener;
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.shadows.ShadowLooper.idleMainLooper;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class HandlerSchedulerMetricsTest {
+    private final RecordingListener listener = new RecordingListener();
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        RxAndroidPlugins.setSchedulerMetricsListener(listener);
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    private static Scheduler newScheduler(SchedulerOptions options) {
+        return new HandlerScheduler(new Handler(Looper.getMainLooper()), true, options);
+    }
+
+    @Test
+    public void directTaskReported() {
+        Scheduler scheduler = newScheduler(SchedulerOptions.DEFAULT);
+        CountingRunnable counter = new CountingRunnable();
+
+        long before = System.nanoTime();
+        scheduler.scheduleDirect(counter);
+        assertEquals(0, listener.events.size());
+
+        runUiThreadTasks();
+        assertEquals(1, counter.get());
+        assertEquals(1, listener.events.size());
+
+        Event event = listener.events.get(0);
+        assertSame(scheduler, event.scheduler);
+        assertSame(Looper.getMainLooper(), event.looper);
+        assertSame(counter, event.task);
+        assertTrue(event.enqueueNanos >= before);
+        assertTrue(event.dispatchNanos >= event.enqueueNanos);
+        assertTrue(event.durationNanos >= 0);
+    }
+
+    @Test
+    public void workerTaskReportedForEveryMode() {
+        List<SchedulerOptions> modes = new ArrayList<>();
+        modes.add(SchedulerOptions.DEFAULT);
+        modes.add(SchedulerOptions.builder().coalesce(true).build());
+        modes.add(SchedulerOptions.builder().pooled(true).build());
+        modes.add(SchedulerOptions.builder().immediate(true).build());
+
+        for (SchedulerOptions options : modes) {
+            listener.events.clear();
+            Scheduler scheduler = newScheduler(options);
+            CountingRunnable counter = new CountingRunnable();
+
+            scheduler.createWorker().schedule(counter);
+            runUiThreadTasks();
+
+            assertEquals(1, counter.get());
+            assertEquals(1, listener.events.size());
+            assertSame(scheduler, listener.events.get(0).scheduler);
+            assertSame(counter, listener.events.get(0).task);
+        }
+    }
+
+    @Test
+    public void delayedTaskEnqueueIncludesDelay() {
+        Scheduler scheduler = newScheduler(SchedulerOptions.DEFAULT);
+
+        long before = System.nanoTime();
+        scheduler.createWorker().schedule(new CountingRunnable(), 1, MINUTES);
+        idleMainLooper(1, MINUTES);
+
+        assertEquals(1, listener.events.size());
+        assertTrue(listener.events.get(0).enqueueNanos >= before + MINUTES.toNanos(1));
+    }
+
+    @Test
+    public void throwingTaskStillReported() {
+        final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        RxJavaPlugins.setErrorHandler(throwableRef::set);
+
+        final NullPointerException npe = new NullPointerException();
+        newScheduler(SchedulerOptions.DEFAULT).scheduleDirect(new Runnable() {
+            @Override public void run() {
+                throw npe;
+            }
+        });
+        runUiThreadTasks();
+
+        assertSame(npe, throwableRef.get());
+        assertEquals(1, listener.events.size());
+    }
+
+    @Test
+    public void throwingListenerRoutedToRxJavaPlugins() {
+        final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        RxJavaPlugins.setErrorHandler(throwableRef::set);
+
+        final IllegalStateException ise = new IllegalStateException();
+        RxAndroidPlugins.setSchedulerMetricsListener(new SchedulerMetricsListener() {
+            @Override public void onTaskRun(Scheduler scheduler, Looper looper, Runnable task,
+                    long enqueueNanos, long dispatchNanos, long durationNanos) {
+                throw ise;
+            }
+        });
+
+        CountingRunnable counter = new CountingRunnable();
+        newScheduler(SchedulerOptions.DEFAULT).scheduleDirect(counter);
+        runUiThreadTasks();
+
+        assertEquals(1, counter.get());
+        assertSame(ise, throwableRef.get());
+    }
+
+    @Test
+    public void taskScheduledWithoutListenerNotReported() {
+        RxAndroidPlugins.setSchedulerMetricsListener(null);
+        Scheduler scheduler = newScheduler(SchedulerOptions.DEFAULT);
+        scheduler.scheduleDirect(new CountingRunnable());
+
+        RxAndroidPlugins.setSchedulerMetricsListener(listener);
+        runUiThreadTasks();
+        assertEquals(0, listener.events.size());
+    }
+
+    @Test
+    public void listenerRemovedBeforeTaskRunsNotReported() {
+        Scheduler scheduler = newScheduler(SchedulerOptions.DEFAULT);
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.scheduleDirect(counter);
+
+        RxAndroidPlugins.setSchedulerMetricsListener(null);
+        runUiThreadTasks();
+        assertEquals(1, counter.get());
+        assertEquals(0, listener.events.size());
+    }
+
+    static final class Event {
+        final Scheduler scheduler;
+        final Looper looper;
+        final Runnable task;
+        final long enqueueNanos;
+        final long dispatchNanos;
+        final long durationNanos;
+
+        Event(Scheduler scheduler, Looper looper, Runnable task, long enqueueNanos,
+                long dispatchNanos, long durationNanos) {
+            this.scheduler = scheduler;
+            this.looper = looper;
+            this.task = task;
+            this.enqueueNanos = enqueueNanos;
+            this.dispatchNanos = dispatchNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+
+    static final class RecordingListener implements SchedulerMetricsListener {
+        final List<Event> events = new ArrayList<>();
+
+        @Override public void onTaskRun(Scheduler scheduler, Looper looper, Runnable task,
+                long enqueueNanos, long dispatchNanos, long durationNanos) {
+            events.add(new Event(scheduler, looper, task, enqueueNanos, dispatchNanos,
+                durationNanos));
+        }
+    }
+}
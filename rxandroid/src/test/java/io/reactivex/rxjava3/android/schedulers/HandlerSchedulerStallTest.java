@@ -0,0 +1,256 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.plugins.SchedulerMetricsListener;
+import io.reactivex.rxjava3.android.plugins.StallDetector;
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class HandlerSchedulerStallTest {
+    private static final long THRESHOLD_MILLIS = 5;
+
+    private final RecordingListener listener = new RecordingListener();
+    private final Runnable slow = new Runnable() {
+        @Override public void run() {
+            try {
+                Thread.sleep(THRESHOLD_MILLIS + 1);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    };
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        setDetector(1);
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    private void setDetector(int originSampleRate) {
+        RxAndroidPlugins.setStallDetector(StallDetector.builder(listener)
+            .threshold(THRESHOLD_MILLIS, MILLISECONDS)
+            .originSampleRate(originSampleRate)
+            .build());
+    }
+
+    private static Scheduler newScheduler(SchedulerOptions options) {
+        return new HandlerScheduler(new Handler(Looper.getMainLooper()), true, options);
+    }
+
+    @Test
+    public void slowTaskReportedWithOrigin() {
+        Scheduler scheduler = newScheduler(SchedulerOptions.DEFAULT);
+        scheduler.scheduleDirect(slow);
+        runUiThreadTasks();
+
+        assertEquals(1, listener.stalls.size());
+        Stall stall = listener.stalls.get(0);
+        assertSame(scheduler, stall.scheduler);
+        assertSame(Looper.getMainLooper(), stall.looper);
+        assertSame(slow, stall.task);
+        assertTrue(stall.durationNanos >= MILLISECONDS.toNanos(THRESHOLD_MILLIS));
+        assertNotNull(stall.origin);
+        assertEquals("slowTaskReportedWithOrigin", originMethod(stall.origin));
+    }
+
+    @Test
+    public void fastTaskNotReported() {
+        CountingRunnable counter = new CountingRunnable();
+        newScheduler(SchedulerOptions.DEFAULT).scheduleDirect(counter);
+        runUiThreadTasks();
+
+        assertEquals(1, counter.get());
+        assertEquals(0, listener.stalls.size());
+    }
+
+    @Test
+    public void originNotCapturedWhenNotSampled() {
+        setDetector(0);
+        newScheduler(SchedulerOptions.DEFAULT).scheduleDirect(slow);
+        runUiThreadTasks();
+
+        assertEquals(1, listener.stalls.size());
+        assertNull(listener.stalls.get(0).origin);
+    }
+
+    @Test
+    public void slowTaskReportedForEveryMode() {
+        List<SchedulerOptions> modes = new ArrayList<>();
+        modes.add(SchedulerOptions.DEFAULT);
+        modes.add(SchedulerOptions.builder().coalesce(true).build());
+        modes.add(SchedulerOptions.builder().pooled(true).build());
+        modes.add(SchedulerOptions.builder().immediate(true).build());
+
+        for (SchedulerOptions options : modes) {
+            listener.stalls.clear();
+            Worker worker = newScheduler(options).createWorker();
+            worker.schedule(slow);
+            runUiThreadTasks();
+
+            assertEquals(1, listener.stalls.size());
+            assertSame(slow, listener.stalls.get(0).task);
+        }
+    }
+
+    @Test
+    public void coalescedTasksReportedIndividually() {
+        Worker worker = newScheduler(SchedulerOptions.builder().coalesce(true).build()).createWorker();
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(slow);
+        worker.schedule(counter);
+        runUiThreadTasks();
+
+        assertEquals(2, counter.get());
+        assertEquals(1, listener.stalls.size());
+        assertSame(slow, listener.stalls.get(0).task);
+    }
+
+    @Test
+    public void immediateTasksRunFromPostedTaskReportedIndividually() {
+        final Worker worker =
+            newScheduler(SchedulerOptions.builder().immediate(true).build()).createWorker();
+        final CountingRunnable counter = new CountingRunnable();
+        // Scheduling off the looper posts the task which then trampolines the slow one.
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override public void run() {
+                worker.schedule(new Runnable() {
+                    @Override public void run() {
+                        counter.run();
+                        worker.schedule(slow);
+                    }
+                });
+            }
+        });
+        thread.setUncaughtExceptionHandler((t, e) -> error.set(e));
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+        assertNull(error.get());
+        runUiThreadTasks();
+
+        assertEquals(1, counter.get());
+        assertEquals(1, listener.stalls.size());
+        assertSame(slow, listener.stalls.get(0).task);
+    }
+
+    @Test
+    public void reportedTaskIsUnwrappedWhenMeasured() {
+        RxAndroidPlugins.setSchedulerMetricsListener(new SchedulerMetricsListener() {
+            @Override public void onTaskRun(Scheduler scheduler, Looper looper, Runnable task,
+                    long enqueueNanos, long dispatchNanos, long durationNanos) {
+            }
+        });
+        newScheduler(SchedulerOptions.DEFAULT).scheduleDirect(slow);
+        runUiThreadTasks();
+
+        assertEquals(1, listener.stalls.size());
+        assertSame(slow, listener.stalls.get(0).task);
+    }
+
+    @Test
+    public void throwingListenerRoutedToRxJavaPlugins() {
+        final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        RxJavaPlugins.setErrorHandler(throwableRef::set);
+
+        final IllegalStateException ise = new IllegalStateException();
+        RxAndroidPlugins.setStallDetector(StallDetector.builder(new StallDetector.Listener() {
+            @Override public void onStall(Scheduler scheduler, Looper looper, Runnable task,
+                    long durationNanos, Throwable origin) {
+                throw ise;
+            }
+        }).threshold(THRESHOLD_MILLIS, MILLISECONDS).build());
+
+        newScheduler(SchedulerOptions.DEFAULT).scheduleDirect(slow);
+        runUiThreadTasks();
+        assertSame(ise, throwableRef.get());
+    }
+
+    private static String originMethod(Throwable origin) {
+        for (StackTraceElement element : origin.getStackTrace()) {
+            if (element.getClassName().equals(HandlerSchedulerStallTest.class.getName())) {
+                return element.getMethodName();
+            }
+        }
+        return null;
+    }
+
+    static final class Stall {
+        final Scheduler scheduler;
+        final Looper looper;
+        final Runnable task;
+        final long durationNanos;
+        final Throwable origin;
+
+        Stall(Scheduler scheduler, Looper looper, Runnable task, long durationNanos,
+                Throwable origin) {
+            this.scheduler = scheduler;
+            this.looper = looper;
+            this.task = task;
+            this.durationNanos = durationNanos;
+            this.origin = origin;
+        }
+    }
+
+    static final class RecordingListener implements StallDetector.Listener {
+        final List<Stall> stalls = new ArrayList<>();
+
+        @Override public void onStall(Scheduler scheduler, Looper looper, Runnable task,
+                long durationNanos, Throwable origin) {
+            stalls.add(new Stall(scheduler, looper, task, durationNanos, origin));
+        }
+    }
+}
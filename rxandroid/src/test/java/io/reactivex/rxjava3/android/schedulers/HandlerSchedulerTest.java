@@ -25,13 +25,13 @@ import io.reactivex.rxjava3.functions.Consumer;
 import io.reactivex.rxjava3.functions.Function;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.After;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.ParameterizedRobolectricTestRunner;
@@ -187,7 +187,7 @@ public final class HandlerSchedulerTest {
         assertEquals(0, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void directSchedulePeriodicallyReschedulesItself() {
         CountingRunnable counter = new CountingRunnable();
         scheduler.schedulePeriodicallyDirect(counter, 1, 1, MINUTES);
@@ -208,7 +208,7 @@ public final class HandlerSchedulerTest {
         assertEquals(3, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void directSchedulePeriodicallyUsesHookOnce() {
         final CountingRunnable newCounter = new CountingRunnable();
         final AtomicReference<Runnable> runnableRef = new AtomicReference<>();
@@ -236,7 +236,7 @@ public final class HandlerSchedulerTest {
         assertNull(runnableRef.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void directSchedulePeriodicallyDisposedDoesNotRun() {
         CountingRunnable counter = new CountingRunnable();
         Disposable disposable = scheduler.schedulePeriodicallyDirect(counter, 1, 1, MINUTES);
@@ -259,7 +259,7 @@ public final class HandlerSchedulerTest {
         assertEquals(2, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void directSchedulePeriodicallyDisposedDuringRunDoesNotReschedule() {
         final AtomicReference<Disposable> disposableRef = new AtomicReference<>();
         CountingRunnable counter = new CountingRunnable() {
@@ -291,7 +291,7 @@ public final class HandlerSchedulerTest {
         assertEquals(2, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void directSchedulePeriodicallyThrowingDoesNotReschedule() {
         CountingRunnable counter = new CountingRunnable() {
             @Override public void run() {
@@ -436,7 +436,7 @@ public final class HandlerSchedulerTest {
         assertEquals(0, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void workerSchedulePeriodicallyReschedulesItself() {
         Worker worker = scheduler.createWorker();
 
@@ -459,7 +459,7 @@ public final class HandlerSchedulerTest {
         assertEquals(3, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void workerSchedulePeriodicallyUsesHookOnce() {
         Worker worker = scheduler.createWorker();
 
@@ -489,7 +489,7 @@ public final class HandlerSchedulerTest {
         assertNull(runnableRef.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void workerSchedulePeriodicallyDisposedDoesNotRun() {
         Worker worker = scheduler.createWorker();
 
@@ -514,7 +514,7 @@ public final class HandlerSchedulerTest {
         assertEquals(2, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void workerSchedulePeriodicallyDisposedDuringRunDoesNotReschedule() {
         Worker worker = scheduler.createWorker();
 
@@ -548,7 +548,7 @@ public final class HandlerSchedulerTest {
         assertEquals(2, counter.get());
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void workerSchedulePeriodicallyThrowingDoesNotReschedule() {
         Worker worker = scheduler.createWorker();
 
@@ -626,6 +626,93 @@ public final class HandlerSchedulerTest {
         assertEquals(0, counter.get());
     }
 
+    @Test
+    public void workerDisposeSkipsNonDelayedWithoutRemovingThem() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.dispose();
+
+        // The message stays queued since finding it would scan the whole queue.
+        assertEquals(1, shadowOf(Looper.getMainLooper()).getScheduler().size());
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void workerDisposeRemovesDelayed() {
+        Worker worker = scheduler.createWorker();
+
+        worker.schedule(new CountingRunnable(), 1, MINUTES);
+        worker.dispose();
+
+        assertEquals(0, shadowOf(Looper.getMainLooper()).getScheduler().size());
+    }
+
+    @Test
+    public void disposingPendingDelayedTaskRemovesIt() {
+        HandlerScheduler.LooperWorker worker =
+            (HandlerScheduler.LooperWorker) scheduler.createWorker();
+
+        Disposable disposable = worker.schedule(new CountingRunnable(), 1, MINUTES);
+        assertTrue(worker.hasDelayedPending());
+
+        disposable.dispose();
+        assertTrue(disposable.isDisposed());
+        assertFalse(worker.hasDelayedPending());
+        assertEquals(0, shadowOf(Looper.getMainLooper()).getScheduler().size());
+    }
+
+    @Test
+    public void disposingPendingTaskSkipsItWithoutRemovingIt() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = worker.schedule(counter);
+        disposable.dispose();
+        assertTrue(disposable.isDisposed());
+
+        assertEquals(1, shadowOf(Looper.getMainLooper()).getScheduler().size());
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void disposingPendingTaskReleasesItsDelegate() throws InterruptedException {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        WeakReference<CountingRunnable> delegate = new WeakReference<>(counter);
+        Disposable disposable = worker.schedule(counter);
+        counter = null;
+        disposable.dispose();
+
+        // The message is still queued, but no longer reaches the delegate.
+        for (int i = 0; i < 10 && delegate.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(delegate.get());
+    }
+
+    @Test
+    public void disposingRunTaskOnlyMarksItDisposed() {
+        HandlerScheduler.LooperWorker worker =
+            (HandlerScheduler.LooperWorker) scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = worker.schedule(counter, 1, SECONDS);
+        runUiThreadTasksIncludingDelayedTasks();
+        assertEquals(1, counter.get());
+        assertFalse(worker.hasDelayedPending());
+
+        assertFalse(disposable.isDisposed());
+        disposable.dispose();
+        assertTrue(disposable.isDisposed());
+        assertFalse(worker.hasDelayedPending());
+    }
+
     @Test
     public void workerUnsubscriptionDoesNotAffectOtherWorkers() {
         Worker workerA = scheduler.createWorker();
@@ -714,7 +801,7 @@ public final class HandlerSchedulerTest {
         }
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void directSchedulePeriodicallyInputValidation() {
         try {
             scheduler.schedulePeriodicallyDirect(null, 1, 1, MINUTES);
@@ -759,7 +846,7 @@ public final class HandlerSchedulerTest {
         }
     }
 
-    @Test @Ignore("Implementation delegated to default RxJava implementation")
+    @Test
     public void workerSchedulePeriodicallyInputValidation() {
         Worker worker = scheduler.createWorker();
         try {
@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.android.testutil.EmptyScheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import static io.reactivex.rxjava3.android.schedulers.IdleScheduler.MAX_IDLE_BATCH;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.shadows.ShadowLooper.idleMainLooper;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class IdleSchedulerTest {
+    private final IdleScheduler scheduler = new IdleScheduler(new Handler(Looper.getMainLooper()));
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        idleHandlers().clear();
+        unPauseMainLooper();
+    }
+
+    private static List<MessageQueue.IdleHandler> idleHandlers() {
+        MessageQueue queue = ReflectionHelpers.getField(Looper.getMainLooper(), "mQueue");
+        return ReflectionHelpers.getField(queue, "mIdleHandlers");
+    }
+
+    /** Runs the idle handlers like the looper does once it has no messages which are due. */
+    private static void runIdleHandlers() {
+        List<MessageQueue.IdleHandler> idleHandlers = idleHandlers();
+        for (MessageQueue.IdleHandler idleHandler : new ArrayList<>(idleHandlers)) {
+            if (!idleHandler.queueIdle()) {
+                idleHandlers.remove(idleHandler);
+            }
+        }
+    }
+
+    @Test
+    public void tasksRunOnlyOnceIdle() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        scheduler.scheduleDirect(counter);
+        assertTrue(idleHandlers().isEmpty());
+
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+        assertEquals(1, idleHandlers().size());
+
+        runIdleHandlers();
+        assertEquals(2, counter.get());
+        assertTrue(idleHandlers().isEmpty());
+    }
+
+    @Test
+    public void idleCallbackRunsBoundedBatch() {
+        CountingRunnable counter = new CountingRunnable();
+        for (int i = 0; i < MAX_IDLE_BATCH + 1; i++) {
+            scheduler.scheduleDirect(counter);
+        }
+
+        runUiThreadTasks();
+        runIdleHandlers();
+        assertEquals(MAX_IDLE_BATCH, counter.get());
+        assertTrue(idleHandlers().isEmpty());
+
+        // A message is posted so that the looper goes idle again.
+        runUiThreadTasks();
+        runIdleHandlers();
+        assertEquals(MAX_IDLE_BATCH + 1, counter.get());
+    }
+
+    @Test
+    public void delayedTaskRunsOnceIdleAfterDelay() {
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.createWorker().schedule(counter, 1, MINUTES);
+
+        idleMainLooper(30, SECONDS);
+        runIdleHandlers();
+        assertEquals(0, counter.get());
+
+        idleMainLooper(30, SECONDS);
+        runUiThreadTasks();
+        runIdleHandlers();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void disposedTaskDoesNotRun() {
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = scheduler.scheduleDirect(counter);
+        Disposable delayed = scheduler.scheduleDirect(counter, 1, MINUTES);
+        disposable.dispose();
+        delayed.dispose();
+
+        idleMainLooper(1, MINUTES);
+        runUiThreadTasks();
+        runIdleHandlers();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void workerDisposeSkipsQueuedAndRemovesDelayed() {
+        Worker worker = scheduler.createWorker();
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(counter, 1, MINUTES);
+        runUiThreadTasks();
+        worker.dispose();
+
+        idleMainLooper(1, MINUTES);
+        runUiThreadTasks();
+        runIdleHandlers();
+        assertEquals(0, counter.get());
+        assertTrue(worker.schedule(counter).isDisposed());
+    }
+
+    @Test
+    public void throwingTaskRoutedToRxJavaPlugins() {
+        final AtomicReference<Throwable> throwableRef = new AtomicReference<>();
+        RxJavaPlugins.setErrorHandler(throwableRef::set);
+
+        final NullPointerException npe = new NullPointerException();
+        scheduler.scheduleDirect(new Runnable() {
+            @Override public void run() {
+                throw npe;
+            }
+        });
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.scheduleDirect(counter);
+
+        runUiThreadTasks();
+        runIdleHandlers();
+        assertSame(npe, throwableRef.get());
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void mainThreadIdleCallsThroughToHook() {
+        final EmptyScheduler newScheduler = new EmptyScheduler();
+        RxAndroidPlugins.setMainThreadIdleSchedulerHandler(scheduler -> newScheduler);
+        assertSame(newScheduler, AndroidSchedulers.mainThreadIdle());
+    }
+}
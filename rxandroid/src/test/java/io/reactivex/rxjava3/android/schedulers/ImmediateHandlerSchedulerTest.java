@@ -0,0 +1,341 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.reactivex.rxjava3.android.plugins.RxAndroidPlugins;
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static io.reactivex.rxjava3.android.schedulers.HandlerScheduler.MAX_IMMEDIATE_DEPTH;
+import static io.reactivex.rxjava3.android.schedulers.HandlerScheduler.MAX_TRAMPOLINE_BATCH;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.shadows.ShadowLooper.idleMainLooper;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class ImmediateHandlerSchedulerTest {
+    private final Scheduler scheduler = new HandlerScheduler(new Handler(Looper.getMainLooper()), true,
+        SchedulerOptions.builder().immediate(true).build());
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        RxAndroidPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    @Test
+    public void directScheduleOnLooperRunsImmediately() {
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = scheduler.scheduleDirect(counter);
+        assertEquals(1, counter.get());
+        assertTrue(disposable.isDisposed());
+    }
+
+    @Test
+    public void workerScheduleOnLooperRunsImmediately() {
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = scheduler.createWorker().schedule(counter);
+        assertEquals(1, counter.get());
+        assertTrue(disposable.isDisposed());
+    }
+
+    @Test
+    public void workerScheduleOnceUsesHookOnce() {
+        final AtomicInteger calls = new AtomicInteger();
+        RxJavaPlugins.setScheduleHandler(runnable -> {
+            calls.incrementAndGet();
+            return runnable;
+        });
+
+        Worker worker = scheduler.createWorker();
+        worker.schedule(new CountingRunnable());
+        worker.schedule(new CountingRunnable(), 1, MINUTES);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void delayedTaskIsPosted() {
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.createWorker().schedule(counter, 1, MINUTES);
+        assertEquals(0, counter.get());
+
+        idleMainLooper(1, MINUTES);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void offLooperThreadIsPosted() throws InterruptedException {
+        final Worker worker = scheduler.createWorker();
+        final CountingRunnable counter = new CountingRunnable();
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override public void run() {
+                worker.schedule(counter);
+                latch.countDown();
+            }
+        }).start();
+        assertTrue(latch.await(1, SECONDS));
+        assertEquals(0, counter.get());
+
+        runUiThreadTasks();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void nestedScheduleOnSameWorkerIsTrampolined() {
+        final Worker worker = scheduler.createWorker();
+        final List<String> order = new ArrayList<>();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                order.add("outer start");
+                worker.schedule(new Runnable() {
+                    @Override public void run() {
+                        order.add("inner");
+                    }
+                });
+                order.add("outer end");
+            }
+        });
+        assertEquals(asList("outer start", "outer end", "inner"), order);
+    }
+
+    @Test
+    public void disposedTrampolinedTaskDoesNotRun() {
+        final Worker worker = scheduler.createWorker();
+        final CountingRunnable counter = new CountingRunnable();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                worker.schedule(counter).dispose();
+            }
+        });
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void earlierPostedTaskRunsFirst() throws InterruptedException {
+        final Worker worker = scheduler.createWorker();
+        final List<String> order = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override public void run() {
+                worker.schedule(new Runnable() {
+                    @Override public void run() {
+                        order.add("posted");
+                    }
+                });
+                latch.countDown();
+            }
+        }).start();
+        assertTrue(latch.await(1, SECONDS));
+
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                order.add("looper");
+            }
+        });
+        assertTrue(order.isEmpty());
+
+        runUiThreadTasks();
+        assertEquals(asList("posted", "looper"), order);
+
+        // With nothing left waiting the worker goes back to running immediately.
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void disposingPostedTaskRestoresImmediateExecution() throws InterruptedException {
+        final Worker worker = scheduler.createWorker();
+        final Disposable[] posted = new Disposable[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override public void run() {
+                posted[0] = worker.schedule(new CountingRunnable());
+                latch.countDown();
+            }
+        }).start();
+        assertTrue(latch.await(1, SECONDS));
+        posted[0].dispose();
+        assertTrue(posted[0].isDisposed());
+
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void nestedDirectScheduleIsTrampolined() {
+        final List<String> order = new ArrayList<>();
+        scheduler.scheduleDirect(new Runnable() {
+            @Override public void run() {
+                scheduler.scheduleDirect(new Runnable() {
+                    @Override public void run() {
+                        order.add("inner");
+                    }
+                });
+                order.add("outer");
+            }
+        });
+        assertEquals(asList("outer", "inner"), order);
+    }
+
+    @Test
+    public void earlierPostedDirectTaskRunsFirst() throws InterruptedException {
+        final List<String> order = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override public void run() {
+                scheduler.scheduleDirect(new Runnable() {
+                    @Override public void run() {
+                        order.add("posted");
+                    }
+                });
+                latch.countDown();
+            }
+        }).start();
+        assertTrue(latch.await(1, SECONDS));
+
+        scheduler.scheduleDirect(new Runnable() {
+            @Override public void run() {
+                order.add("looper");
+            }
+        });
+        assertTrue(order.isEmpty());
+
+        runUiThreadTasks();
+        assertEquals(asList("posted", "looper"), order);
+    }
+
+    @Test
+    public void nestingDepthIsBounded() {
+        final CountingRunnable counter = new CountingRunnable();
+        // Each task schedules the next on a new worker, so none of them can be trampolined.
+        scheduler.createWorker().schedule(new Runnable() {
+            @Override public void run() {
+                counter.run();
+                if (counter.get() < 100) {
+                    scheduler.createWorker().schedule(this);
+                }
+            }
+        });
+        assertEquals(MAX_IMMEDIATE_DEPTH, counter.get());
+
+        runUiThreadTasks();
+        assertEquals(100, counter.get());
+    }
+
+    @Test
+    public void trampolineYieldsToLooper() {
+        final Worker worker = scheduler.createWorker();
+        final CountingRunnable counter = new CountingRunnable();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                counter.run();
+                if (counter.get() < 1000) {
+                    worker.schedule(this);
+                }
+            }
+        });
+        assertEquals(1 + MAX_TRAMPOLINE_BATCH, counter.get());
+
+        runUiThreadTasks();
+        assertEquals(1000, counter.get());
+    }
+
+    @Test
+    public void hopListenerReportsAvoidedAndTakenHops() throws InterruptedException {
+        final List<Boolean> hops = new ArrayList<>();
+        RxAndroidPlugins.setSchedulerHopListener((scheduler, looper, hopAvoided) -> {
+            assertSame(this.scheduler, scheduler);
+            assertSame(Looper.getMainLooper(), looper);
+            synchronized (hops) {
+                hops.add(hopAvoided);
+            }
+        });
+
+        final Worker worker = scheduler.createWorker();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                worker.schedule(new CountingRunnable()); // Trampolined, which avoids a hop.
+            }
+        });
+        scheduler.scheduleDirect(new CountingRunnable());
+        worker.schedule(new CountingRunnable(), 1, MINUTES); // Delayed tasks are not reported.
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        new Thread(new Runnable() {
+            @Override public void run() {
+                worker.schedule(new CountingRunnable());
+                scheduler.scheduleDirect(new CountingRunnable());
+                latch.countDown();
+            }
+        }).start();
+        assertTrue(latch.await(1, SECONDS));
+
+        synchronized (hops) {
+            assertEquals(asList(true, true, true, false, false), hops);
+        }
+    }
+
+    @Test
+    public void workerDisposeCancelsTrampolineAndPosted() {
+        final Worker worker = scheduler.createWorker();
+        final CountingRunnable counter = new CountingRunnable();
+        worker.schedule(new Runnable() {
+            @Override public void run() {
+                worker.schedule(counter);
+                worker.dispose();
+            }
+        });
+        worker.schedule(counter);
+
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+        assertTrue(worker.isDisposed());
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Process;
+
+import io.reactivex.rxjava3.android.schedulers.LooperPoolScheduler.Slot;
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import static io.reactivex.rxjava3.android.testutil.PendingMessages.pendingMessages;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class LooperPoolSchedulerTest {
+    private LooperPoolScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = (LooperPoolScheduler) AndroidSchedulers.looperPool(2);
+        for (Slot slot : scheduler.slots) {
+            shadowOf(slot.thread.getLooper()).pause(); // Take manual control of looper task queue.
+        }
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private static void runTasks(Slot slot) {
+        shadowOf(slot.thread.getLooper()).getScheduler().advanceToLastPostedRunnable();
+    }
+
+    @Test
+    public void threadsUseRequestedPriority() {
+        LooperPoolScheduler pool =
+            (LooperPoolScheduler) AndroidSchedulers.looperPool(1, Process.THREAD_PRIORITY_DISPLAY);
+        try {
+            int priority = ReflectionHelpers.getField(pool.slots[0].thread, "mPriority");
+            assertEquals(Process.THREAD_PRIORITY_DISPLAY, priority);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void idleWorkersSpreadAcrossLoopers() {
+        scheduler.createWorker().schedule(new CountingRunnable());
+        scheduler.createWorker().schedule(new CountingRunnable());
+
+        assertEquals(1, pendingMessages(scheduler.slots[0].thread.getLooper()));
+        assertEquals(1, pendingMessages(scheduler.slots[1].thread.getLooper()));
+    }
+
+    @Test
+    public void workerBoundToLeastPendingLooper() {
+        Worker busy = scheduler.createWorker();
+        busy.schedule(new CountingRunnable());
+        busy.schedule(new CountingRunnable());
+        scheduler.createWorker().schedule(new CountingRunnable());
+
+        // Slot 0 has two pending tasks and slot 1 has one so the next worker goes to slot 1.
+        scheduler.createWorker().schedule(new CountingRunnable());
+        assertEquals(2, pendingMessages(scheduler.slots[0].thread.getLooper()));
+        assertEquals(2, pendingMessages(scheduler.slots[1].thread.getLooper()));
+    }
+
+    @Test
+    public void workerRunsSeriallyOnItsLooper() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(counter);
+        worker.schedule(counter);
+
+        assertEquals(3, pendingMessages(scheduler.slots[0].thread.getLooper()));
+        assertEquals(0, pendingMessages(scheduler.slots[1].thread.getLooper()));
+        assertEquals(3, scheduler.slots[0].pending.get());
+
+        runTasks(scheduler.slots[0]);
+        assertEquals(3, counter.get());
+        assertEquals(0, scheduler.slots[0].pending.get());
+    }
+
+    @Test
+    public void disposedTaskReleasesPendingCount() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = worker.schedule(counter, 1, MINUTES);
+        assertEquals(1, scheduler.slots[0].pending.get());
+
+        disposable.dispose();
+        assertTrue(disposable.isDisposed());
+        assertEquals(0, scheduler.slots[0].pending.get());
+
+        // Disposing again does not release twice.
+        disposable.dispose();
+        assertEquals(0, scheduler.slots[0].pending.get());
+    }
+
+    @Test
+    public void disposedWorkerReleasesPendingCountAndSlot() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(counter);
+        assertEquals(2, scheduler.slots[0].pending.get());
+        assertEquals(1, scheduler.slots[0].workers.get());
+
+        worker.dispose();
+        assertTrue(worker.isDisposed());
+        assertEquals(0, scheduler.slots[0].pending.get());
+        assertEquals(0, scheduler.slots[0].workers.get());
+
+        runTasks(scheduler.slots[0]);
+        assertEquals(0, counter.get());
+        assertEquals(0, scheduler.slots[0].pending.get());
+        assertTrue(worker.schedule(counter).isDisposed());
+    }
+
+    @Test
+    public void directTasksCounted() {
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.scheduleDirect(counter);
+        scheduler.scheduleDirect(counter);
+
+        assertEquals(1, pendingMessages(scheduler.slots[0].thread.getLooper()));
+        assertEquals(1, pendingMessages(scheduler.slots[1].thread.getLooper()));
+
+        runTasks(scheduler.slots[0]);
+        runTasks(scheduler.slots[1]);
+        assertEquals(2, counter.get());
+        assertEquals(0, scheduler.slots[0].pending.get());
+        assertEquals(0, scheduler.slots[1].pending.get());
+    }
+
+    @Test
+    public void shutdownQuitsThreads() throws InterruptedException {
+        Worker worker = scheduler.createWorker();
+        scheduler.shutdown();
+
+        for (Slot slot : scheduler.slots) {
+            slot.thread.join(5000);
+            assertFalse(slot.thread.isAlive());
+        }
+        assertTrue(worker.schedule(new CountingRunnable()).isDisposed());
+        assertTrue(scheduler.scheduleDirect(new CountingRunnable()).isDisposed());
+    }
+
+    @Test
+    public void invalidArguments() {
+        try {
+            AndroidSchedulers.looperPool(0);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("size <= 0: 0", e.getMessage());
+        }
+        try {
+            AndroidSchedulers.looperPool(1, 20);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("Invalid priority: 20", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.lang.management.ManagementFactory;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class PooledHandlerSchedulerTest {
+    private static final SchedulerOptions POOLED = SchedulerOptions.builder().pooled(true).build();
+
+    private final Scheduler scheduler =
+        new HandlerScheduler(new Handler(Looper.getMainLooper()), true, POOLED);
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    @Test
+    public void runnableIsReusedAfterRunning() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+
+        worker.schedule(counter);
+        runUiThreadTasks();
+        worker.schedule(counter);
+        runUiThreadTasks();
+
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void handleIsRecycledWithItsRunnable() {
+        CountingRunnable counter = new CountingRunnable();
+
+        Disposable first = scheduler.createWorker().schedule(counter);
+        runUiThreadTasks();
+        assertTrue(first.isDisposed()); // Delivered.
+
+        // The runnable of the first task is recycled for the second task of another worker.
+        Disposable second = scheduler.createWorker().schedule(counter);
+        assertSame(first, second);
+        assertFalse(second.isDisposed());
+
+        second.dispose();
+        runUiThreadTasks();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void disposedTaskDoesNotRunAndIsRecycled() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+
+        Disposable first = worker.schedule(counter);
+        first.dispose();
+        assertTrue(first.isDisposed());
+
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+
+        Disposable second = worker.schedule(counter);
+        assertFalse(second.isDisposed());
+
+        runUiThreadTasks();
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void disposeAfterRunningIsIgnored() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+
+        Disposable first = worker.schedule(counter);
+        runUiThreadTasks();
+        first.dispose();
+        assertTrue(first.isDisposed());
+
+        Disposable second = worker.schedule(counter);
+        assertFalse(second.isDisposed());
+        runUiThreadTasks();
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void delayedTasksAreNotPooled() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+
+        Disposable first = worker.schedule(counter, 1, MINUTES);
+        first.dispose();
+        Disposable second = worker.schedule(counter, 1, MINUTES);
+
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void steadyStateScheduleIsAllocationFree() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        final CapturingHandler handler = new CapturingHandler();
+        final Runnable task = new CountingRunnable();
+        final Worker pooled = new HandlerScheduler(handler, true, POOLED).createWorker();
+        final Worker unpooled = new HandlerScheduler(handler, true).createWorker();
+
+        // The harness itself (obtaining and recycling messages under Robolectric) may allocate, so
+        // compare against a loop which only performs the harness work.
+        Runnable baseline = new Runnable() {
+            @Override public void run() {
+                handler.sendMessage(Message.obtain(handler, task));
+                handler.deliver();
+            }
+        };
+        Runnable pooledSchedule = new Runnable() {
+            @Override public void run() {
+                pooled.schedule(task);
+                handler.deliver();
+            }
+        };
+        Runnable unpooledSchedule = new Runnable() {
+            @Override public void run() {
+                unpooled.schedule(task);
+                handler.deliver();
+            }
+        };
+
+        long baselineBytes = bytesPerOperation(threads, baseline);
+        long pooledBytes = bytesPerOperation(threads, pooledSchedule);
+        long unpooledBytes = bytesPerOperation(threads, unpooledSchedule);
+
+        assertEquals("pooled=" + pooledBytes + " baseline=" + baselineBytes,
+            0, pooledBytes - baselineBytes);
+        // Guards against a harness which hides allocations from the measurement.
+        assertTrue("unpooled=" + unpooledBytes + " baseline=" + baselineBytes,
+            unpooledBytes > baselineBytes);
+    }
+
+    private static long bytesPerOperation(com.sun.management.ThreadMXBean threads, Runnable operation) {
+        int operations = 10_000;
+        for (int i = 0; i < operations; i++) {
+            operation.run(); // Warm up the pools and JIT.
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < operations; i++) {
+            operation.run();
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+        return (after - before) / operations;
+    }
+
+    /** Captures messages instead of enqueueing them so they can be delivered synchronously. */
+    private static final class CapturingHandler extends Handler {
+        private Message message;
+
+        CapturingHandler() {
+            super(Looper.getMainLooper());
+        }
+
+        @Override
+        public boolean sendMessageAtTime(Message msg, long uptimeMillis) {
+            message = msg;
+            return true;
+        }
+
+        void deliver() {
+            Message message = this.message;
+            this.message = null;
+            message.getCallback().run();
+            message.recycle();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static io.reactivex.rxjava3.android.schedulers.HandlerScheduler.MAX_PRIORITY_BATCH;
+import static io.reactivex.rxjava3.android.testutil.PendingMessages.pendingMessages;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.shadows.ShadowLooper.idleMainLooper;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.runMainLooperOneTask;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class PriorityHandlerSchedulerTest {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Scheduler scheduler = new HandlerScheduler(handler, true,
+        SchedulerOptions.builder().priority(Priority.HIGH).build());
+    private final List<String> order = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override public void run() {
+                order.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void directTaskRunsBeforeQueuedMessages() {
+        handler.post(record("normal"));
+        scheduler.scheduleDirect(record("high"));
+
+        runUiThreadTasks();
+        assertEquals(asList("high", "normal"), order);
+    }
+
+    @Test
+    public void workerTasksRunBeforeQueuedMessagesInOrder() {
+        Worker worker = scheduler.createWorker();
+        handler.post(record("normal"));
+        worker.schedule(record("high1"));
+        worker.schedule(record("high2"));
+        assertEquals(2, pendingMessages());
+
+        runUiThreadTasks();
+        assertEquals(asList("high1", "high2", "normal"), order);
+    }
+
+    @Test
+    public void delayedTasksArePostedAsUsual() {
+        CountingRunnable counter = new CountingRunnable();
+        scheduler.scheduleDirect(counter, 1, MINUTES);
+        handler.postDelayed(record("normal"), MINUTES.toMillis(1));
+        scheduler.scheduleDirect(record("high"), 1, MINUTES);
+
+        idleMainLooper(1, MINUTES);
+        runUiThreadTasks();
+        assertEquals(1, counter.get());
+        assertEquals(asList("normal", "high"), order);
+    }
+
+    @Test
+    public void longBurstYieldsToQueuedMessages() {
+        Worker worker = scheduler.createWorker();
+        handler.post(record("normal"));
+        CountingRunnable counter = new CountingRunnable();
+        for (int i = 0; i < MAX_PRIORITY_BATCH; i++) {
+            worker.schedule(counter);
+        }
+        worker.schedule(record("high"));
+
+        runMainLooperOneTask();
+        assertEquals(MAX_PRIORITY_BATCH, counter.get());
+        assertEquals(2, pendingMessages());
+
+        runUiThreadTasks();
+        assertEquals(asList("normal", "high"), order);
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void disposedWorkerTasksAreSkipped() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+        worker.schedule(counter);
+        worker.schedule(counter, 1, MINUTES);
+        worker.dispose();
+
+        idleMainLooper(1, MINUTES);
+        runUiThreadTasks();
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void coalescedDrainRunsBeforeQueuedMessages() {
+        Scheduler scheduler = new HandlerScheduler(handler, true,
+            SchedulerOptions.builder().priority(Priority.HIGH).coalesce(true).build());
+        Worker worker = scheduler.createWorker();
+        handler.post(record("normal"));
+        worker.schedule(record("high1"));
+        worker.schedule(record("high2"));
+
+        runUiThreadTasks();
+        assertEquals(asList("high1", "high2", "normal"), order);
+    }
+}
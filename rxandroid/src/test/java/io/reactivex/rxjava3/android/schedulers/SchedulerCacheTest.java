@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Build;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ReflectionHelpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class SchedulerCacheTest {
+    private final SchedulerCache cache = new SchedulerCache();
+
+    @Test
+    public void sameLooperAndOptionsReuseScheduler() {
+        Looper looper = Looper.getMainLooper();
+        HandlerScheduler scheduler = cache.get(looper, SchedulerOptions.DEFAULT);
+        assertSame(scheduler, cache.get(looper, SchedulerOptions.builder().build()));
+        assertEquals(1, cache.size());
+
+        HandlerScheduler coalescing =
+            cache.get(looper, SchedulerOptions.builder().coalesce(true).build());
+        assertNotSame(scheduler, coalescing);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void quitLooperReleasedOnceItsSchedulersAreUnused() throws InterruptedException {
+        HandlerThread thread = new HandlerThread("SchedulerCacheTest");
+        thread.start();
+        cache.get(thread.getLooper(), SchedulerOptions.DEFAULT);
+        HandlerScheduler main = cache.get(Looper.getMainLooper(), SchedulerOptions.DEFAULT);
+
+        thread.quit();
+        thread.join(5000);
+
+        // The collected scheduler's entry is removed without inspecting any looper.
+        for (int i = 0; i < 10 && cache.size() != 1; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertEquals(1, cache.size());
+        assertSame(main, cache.get(Looper.getMainLooper(), SchedulerOptions.DEFAULT));
+    }
+
+    @Test
+    public void liveLooperIsKept() throws InterruptedException {
+        HandlerThread thread = new HandlerThread("SchedulerCacheTest");
+        thread.start();
+        try {
+            HandlerScheduler scheduler = cache.get(thread.getLooper(), SchedulerOptions.DEFAULT);
+
+            cache.get(Looper.getMainLooper(), SchedulerOptions.DEFAULT);
+            assertEquals(2, cache.size());
+            assertSame(scheduler, cache.get(thread.getLooper(), SchedulerOptions.DEFAULT));
+        } finally {
+            thread.quit();
+        }
+    }
+
+    @Test
+    public void effectiveAsyncChangeReplacesScheduler() {
+        Looper looper = Looper.getMainLooper();
+        HandlerScheduler async = cache.get(looper, SchedulerOptions.DEFAULT);
+        assertTrue(async.async);
+
+        int oldValue = Build.VERSION.SDK_INT;
+        ReflectionHelpers.setStaticField(Build.VERSION.class, "SDK_INT", 14);
+        try {
+            HandlerScheduler sync = cache.get(looper, SchedulerOptions.DEFAULT);
+            assertNotSame(async, sync);
+            assertFalse(sync.async);
+        } finally {
+            ReflectionHelpers.setStaticField(Build.VERSION.class, "SDK_INT", oldValue);
+        }
+    }
+}
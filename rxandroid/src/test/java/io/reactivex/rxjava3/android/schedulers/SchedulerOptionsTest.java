@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class SchedulerOptionsTest {
+    @Test
+    public void defaults() {
+        SchedulerOptions options = SchedulerOptions.DEFAULT;
+        assertTrue(options.isAsync());
+        assertFalse(options.isCoalescing());
+        assertEquals(0, options.getDrainBudget(NANOSECONDS));
+        assertFalse(options.isImmediate());
+        assertFalse(options.isPooled());
+        assertEquals(Priority.NORMAL, options.getPriority());
+        assertEquals(0, options.getTimerWheelTick(MILLISECONDS));
+    }
+
+    @Test
+    public void newBuilderCopiesValues() {
+        SchedulerOptions options = SchedulerOptions.builder()
+            .async(false)
+            .coalesce(true)
+            .drainBudget(4, MILLISECONDS)
+            .immediate(true)
+            .priority(Priority.HIGH)
+            .timerWheel(10, MILLISECONDS)
+            .build();
+        SchedulerOptions copy = options.newBuilder().build();
+        assertFalse(copy.isAsync());
+        assertTrue(copy.isCoalescing());
+        assertEquals(4, copy.getDrainBudget(MILLISECONDS));
+        assertTrue(copy.isImmediate());
+        assertEquals(Priority.HIGH, copy.getPriority());
+        assertEquals(10, copy.getTimerWheelTick(MILLISECONDS));
+    }
+
+    @Test
+    public void equalOptionsAreEqual() {
+        SchedulerOptions options = SchedulerOptions.builder().coalesce(true).build();
+        SchedulerOptions same = SchedulerOptions.builder().coalesce(true).build();
+        assertEquals(options, same);
+        assertEquals(options.hashCode(), same.hashCode());
+        assertEquals(options, options.newBuilder().build());
+
+        assertNotEquals(options, SchedulerOptions.DEFAULT);
+        assertNotEquals(options, options.newBuilder().async(false).build());
+        assertNotEquals(options, options.newBuilder().drainBudget(1, MILLISECONDS).build());
+        assertNotEquals(options, options.newBuilder().priority(Priority.HIGH).build());
+        assertNotEquals(options, options.newBuilder().timerWheel(1, MILLISECONDS).build());
+    }
+
+    @Test
+    public void drainBudgetRequiresCoalescing() {
+        try {
+            SchedulerOptions.builder().drainBudget(4, MILLISECONDS).build();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("drainBudget requires coalesce(true)", e.getMessage());
+        }
+    }
+
+    @Test
+    public void pooledCannotBeCombinedWithCoalescing() {
+        assertTrue(SchedulerOptions.builder().pooled(true).build().isPooled());
+        try {
+            SchedulerOptions.builder().pooled(true).coalesce(true).build();
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("pooled cannot be combined with coalesce(true)", e.getMessage());
+        }
+    }
+
+    @Test
+    public void drainBudgetInputValidation() {
+        try {
+            SchedulerOptions.builder().drainBudget(-1, MILLISECONDS);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("budget < 0: -1", e.getMessage());
+        }
+        try {
+            SchedulerOptions.builder().drainBudget(1, null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("unit == null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void priorityInputValidation() {
+        try {
+            SchedulerOptions.builder().priority(null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("priority == null", e.getMessage());
+        }
+    }
+
+    @Test
+    public void timerWheelTickIsAtLeastOneMillisecond() {
+        SchedulerOptions options = SchedulerOptions.builder().timerWheel(10, NANOSECONDS).build();
+        assertEquals(1, options.getTimerWheelTick(MILLISECONDS));
+    }
+
+    @Test
+    public void timerWheelInputValidation() {
+        try {
+            SchedulerOptions.builder().timerWheel(-1, MILLISECONDS);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("tick < 0: -1", e.getMessage());
+        }
+        try {
+            SchedulerOptions.builder().timerWheel(1, null);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals("unit == null", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.schedulers;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import io.reactivex.rxjava3.android.testutil.CountingRunnable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Scheduler.Worker;
+import io.reactivex.rxjava3.disposables.Disposable;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static io.reactivex.rxjava3.android.schedulers.TimerWheel.WHEEL_SIZE;
+import static io.reactivex.rxjava3.android.testutil.PendingMessages.pendingMessages;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.shadows.ShadowLooper.idleMainLooper;
+import static org.robolectric.shadows.ShadowLooper.pauseMainLooper;
+import static org.robolectric.shadows.ShadowLooper.unPauseMainLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public final class TimerWheelTest {
+    private static final long TICK = 10;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final TimerWheel wheel = new TimerWheel(handler, true, TICK);
+    private final Scheduler scheduler = new HandlerScheduler(handler, true,
+        SchedulerOptions.builder().timerWheel(TICK, MILLISECONDS).build());
+
+    @Before
+    public void setUp() {
+        RxJavaPlugins.reset();
+        pauseMainLooper(); // Take manual control of looper task queue.
+    }
+
+    @After
+    public void tearDown() {
+        RxJavaPlugins.reset();
+        unPauseMainLooper();
+    }
+
+    @Test
+    public void manyTasksPostSingleMessage() {
+        CountingRunnable counter = new CountingRunnable();
+        for (int i = 1; i <= 100; i++) {
+            wheel.add(counter, null, i * TICK);
+        }
+        assertEquals(100, wheel.size());
+        assertEquals(1, pendingMessages());
+
+        idleMainLooper(101 * TICK, MILLISECONDS);
+        assertEquals(100, counter.get());
+        assertEquals(0, wheel.size());
+        assertEquals(0, pendingMessages());
+    }
+
+    @Test
+    public void taskNeverRunsEarlyAndAtMostOneTickLate() {
+        CountingRunnable counter = new CountingRunnable();
+        wheel.add(counter, null, 15);
+
+        idleMainLooper(14, MILLISECONDS);
+        assertEquals(0, counter.get());
+
+        idleMainLooper(TICK + 1, MILLISECONDS);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void tasksDueInSameTickRunInOrderAdded() {
+        final List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final int value = i;
+            wheel.add(new Runnable() {
+                @Override public void run() {
+                    order.add(value);
+                }
+            }, null, TICK);
+        }
+
+        idleMainLooper(2 * TICK, MILLISECONDS);
+        assertEquals(asList(0, 1, 2), order);
+    }
+
+    @Test
+    public void earlierTaskPostsEarlierMessage() {
+        CountingRunnable later = new CountingRunnable();
+        CountingRunnable earlier = new CountingRunnable();
+        wheel.add(later, null, 100 * TICK);
+        wheel.add(earlier, null, TICK);
+        assertEquals(2, pendingMessages());
+
+        idleMainLooper(2 * TICK, MILLISECONDS);
+        assertEquals(1, earlier.get());
+        assertEquals(0, later.get());
+
+        idleMainLooper(100 * TICK, MILLISECONDS);
+        assertEquals(1, later.get());
+    }
+
+    @Test
+    public void taskBeyondOneRotationWaitsForItsRound() {
+        CountingRunnable counter = new CountingRunnable();
+        wheel.add(counter, null, 2 * WHEEL_SIZE * TICK);
+
+        idleMainLooper(WHEEL_SIZE * TICK + TICK, MILLISECONDS);
+        assertEquals(0, counter.get());
+        assertEquals(1, wheel.size());
+
+        idleMainLooper(WHEEL_SIZE * TICK, MILLISECONDS);
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void removeAndRemoveAll() {
+        CountingRunnable counter = new CountingRunnable();
+        Object token = new Object();
+        wheel.add(counter, null, TICK);
+        CountingRunnable removed = new CountingRunnable();
+        wheel.add(removed, null, TICK);
+        wheel.add(new CountingRunnable(), token, TICK);
+        wheel.add(new CountingRunnable(), token, 1000 * TICK);
+
+        wheel.remove(removed);
+        wheel.removeAll(token);
+        assertEquals(1, wheel.size());
+
+        idleMainLooper(1000 * TICK, MILLISECONDS);
+        assertEquals(1, counter.get());
+        assertEquals(0, removed.get());
+    }
+
+    @Test
+    public void schedulerHoldsDelayedTasksInWheel() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+        for (int i = 1; i <= 10; i++) {
+            worker.schedule(counter, i, MILLISECONDS);
+            scheduler.scheduleDirect(counter, i, MILLISECONDS);
+        }
+        assertEquals(1, pendingMessages());
+
+        idleMainLooper(2 * TICK, MILLISECONDS);
+        assertEquals(20, counter.get());
+    }
+
+    @Test
+    public void schedulerDisposalRemovesFromWheel() {
+        Worker worker = scheduler.createWorker();
+        CountingRunnable counter = new CountingRunnable();
+        Disposable disposable = scheduler.scheduleDirect(counter, 1, MILLISECONDS);
+        worker.schedule(counter, 1, MILLISECONDS);
+        disposable.dispose();
+        worker.dispose();
+
+        idleMainLooper(2 * TICK, MILLISECONDS);
+        assertEquals(0, counter.get());
+    }
+}
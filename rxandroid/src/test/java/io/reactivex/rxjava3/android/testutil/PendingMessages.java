@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.reactivex.rxjava3.android.testutil;
+
+import android.os.Looper;
+
+import static org.robolectric.Shadows.shadowOf;
+
+public final class PendingMessages {
+    /** The number of messages waiting in the main looper's queue. */
+    public static int pendingMessages() {
+        return pendingMessages(Looper.getMainLooper());
+    }
+
+    /** The number of messages waiting in {@code looper}'s queue. */
+    public static int pendingMessages(Looper looper) {
+        return shadowOf(looper).getScheduler().size();
+    }
+
+    private PendingMessages() {
+        throw new AssertionError("No instances.");
+    }
+}
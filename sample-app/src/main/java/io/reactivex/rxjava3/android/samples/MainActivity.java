@@ -18,10 +18,10 @@ import android.os.Bundle;
 import android.os.SystemClock;
 import android.util.Log;
 import android.view.View;
+import io.reactivex.rxjava3.android.MainThreadCompositeDisposable;
 import io.reactivex.rxjava3.android.schedulers.AndroidSchedulers;
 import io.reactivex.rxjava3.core.Observable;
 import io.reactivex.rxjava3.core.ObservableSource;
-import io.reactivex.rxjava3.disposables.CompositeDisposable;
 import io.reactivex.rxjava3.functions.Supplier;
 import io.reactivex.rxjava3.observers.DisposableObserver;
 import io.reactivex.rxjava3.schedulers.Schedulers;
@@ -29,7 +29,7 @@ import io.reactivex.rxjava3.schedulers.Schedulers;
 public class MainActivity extends Activity {
     private static final String TAG = "RxAndroidSamples";
 
-    private final CompositeDisposable disposables = new CompositeDisposable();
+    private final MainThreadCompositeDisposable disposables = new MainThreadCompositeDisposable();
 
     @Override protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -43,7 +43,7 @@ public class MainActivity extends Activity {
 
     @Override protected void onDestroy() {
         super.onDestroy();
-        disposables.clear();
+        disposables.clearAndReuse();
     }
 
     void onRunSchedulerExampleButtonClicked() {